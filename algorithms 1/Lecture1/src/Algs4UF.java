@@ -0,0 +1,39 @@
+// adapter running Percolation on algs4's WeightedQuickUnionUF, kept as a
+// baseline to compare the other UnionFind backends against
+public class Algs4UF implements UnionFind {
+
+    private final WeightedQuickUnionUF weightedQuickUnionUF;
+    private final int size;
+
+    // create N sites, each in its own component
+    public Algs4UF(int N) {
+        this.weightedQuickUnionUF = new WeightedQuickUnionUF(N);
+        this.size = N;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int count() {
+        return this.weightedQuickUnionUF.count();
+    }
+
+    @Override
+    public int find(int p) {
+        return this.weightedQuickUnionUF.find(p);
+    }
+
+    @Override
+    public boolean connected(int p, int q) {
+        return this.weightedQuickUnionUF.connected(p, q);
+    }
+
+    @Override
+    public int union(int p, int q) {
+        this.weightedQuickUnionUF.union(p, q);
+        return this.weightedQuickUnionUF.find(p);
+    }
+}
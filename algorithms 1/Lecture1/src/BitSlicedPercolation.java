@@ -0,0 +1,140 @@
+/****************************************************************************
+ *  Compilation:  javac BitSlicedPercolation.java
+ *  Dependencies: none
+ *
+ *  Bit-parallel fixed-p percolation. Each site of the N-by-N grid holds
+ *  one long whose bit k is the state of that site in trial k, so one pass
+ *  over the grid advances 64 independent trials at once.
+ *
+ *  Full sites are found by flood filling from the top row with word-wide
+ *  AND/OR: a site becomes full in every trial where it is open and a
+ *  neighbour is full. Sweeps alternate downwards and upwards, each row
+ *  also being swept left and right, until no word changes.
+ *
+ ****************************************************************************/
+
+import java.util.SplittableRandom;
+
+public class BitSlicedPercolation {
+
+    // number of independent trials held in each word
+    public static final int TRIALS_PER_WORD = 64;
+
+    // binary digits of p used when drawing open sites; p is rounded to a
+    // multiple of 2^-P_PRECISION
+    private static final int P_PRECISION = 16;
+
+    private final int N;
+    private final long[] open;
+    private final long[] full;
+
+    // create an N-by-N grid of TRIALS_PER_WORD blocked trials
+    public BitSlicedPercolation(int N) {
+        if (N <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.N = N;
+        this.open = new long[N * N];
+        this.full = new long[N * N];
+    }
+
+    // draw TRIALS_PER_WORD grids with each site open with probability p
+    // and return the mask of trials that percolate
+    public long sample(double p, SplittableRandom random) {
+        if (p < 0.0 || p > 1.0) {
+            throw new IllegalArgumentException();
+        }
+
+        int threshold = (int) Math.round(p * (1 << P_PRECISION));
+        for (int index = 0; index < this.open.length; index++) {
+            this.open[index] = bernoulliWord(threshold, random);
+        }
+
+        return percolatingTrials();
+    }
+
+    // bit k is set if site index of the last sample is open in trial k
+    long openTrials(int index) {
+        return this.open[index];
+    }
+
+    // each bit is set with probability threshold / 2^P_PRECISION, built
+    // from the binary digits of threshold, least significant first
+    private static long bernoulliWord(int threshold, SplittableRandom random) {
+        if (threshold >= (1 << P_PRECISION)) {
+            return -1L;
+        }
+
+        long word = 0;
+        int digit = Integer.numberOfTrailingZeros(threshold);
+        for (; digit < P_PRECISION; digit++) {
+            if ((threshold & (1 << digit)) != 0) {
+                word |= random.nextLong();
+            } else {
+                word &= random.nextLong();
+            }
+        }
+        return word;
+    }
+
+    // flood fill full sites from the top row and return the bottom row's
+    // full trials
+    private long percolatingTrials() {
+        System.arraycopy(this.open, 0, this.full, 0, N);
+        for (int index = N; index < this.full.length; index++) {
+            this.full[index] = 0;
+        }
+        sweepRow(0);
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int row = 1; row < N; row++) {
+                changed |= fillFrom(row, row - 1);
+            }
+            for (int row = N - 2; row >= 0; row--) {
+                changed |= fillFrom(row, row + 1);
+            }
+        }
+
+        long percolates = 0;
+        for (int index = (N - 1) * N; index < this.full.length; index++) {
+            percolates |= this.full[index];
+        }
+        return percolates;
+    }
+
+    // fill row from the adjacent row, then along the row itself, returning
+    // whether any word of the row changed
+    private boolean fillFrom(int row, int adjacent) {
+        int start = row * N;
+        int adjacentStart = adjacent * N;
+        long changed = 0;
+        for (int c = 0; c < N; c++) {
+            long before = this.full[start + c];
+            long after = before
+                    | (this.open[start + c] & this.full[adjacentStart + c]);
+            this.full[start + c] = after;
+            changed |= before ^ after;
+        }
+        if (changed == 0) {
+            return false;
+        }
+
+        sweepRow(row);
+        return true;
+    }
+
+    // spread fullness left and right along one row's runs of open sites
+    private void sweepRow(int row) {
+        int start = row * N;
+        int end = start + N;
+        for (int index = start + 1; index < end; index++) {
+            this.full[index] |= this.open[index] & this.full[index - 1];
+        }
+        for (int index = end - 2; index >= start; index--) {
+            this.full[index] |= this.open[index] & this.full[index + 1];
+        }
+    }
+}
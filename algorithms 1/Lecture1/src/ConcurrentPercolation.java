@@ -0,0 +1,164 @@
+/****************************************************************************
+ *  Compilation:  javac ConcurrentPercolation.java
+ *  Dependencies: Percolation.java PercolationListener.java
+ *
+ *  Percolation that may be opened by one thread while any number of other
+ *  threads query it. The writer runs an ordinary Percolation, and its
+ *  listener records, for every site, the epoch at which the site opened
+ *  and the epoch at which it became full, where epoch e is the state after
+ *  the e-th distinct open. Sites never close or empty again, so the state
+ *  at epoch e is exactly the sites stamped e or earlier.
+ *
+ *  Each open stamps its sites first and then publishes its epoch through a
+ *  volatile write. A reader reads the published epoch and then the stamps,
+ *  without locking: every stamp up to that epoch is visible to it, and any
+ *  later stamp it happens to see is larger and so ignored. snapshot()
+ *  hands out an epoch as an object whose answers all describe the same
+ *  moment and never change; isOpen, isFull and percolates on the grid each
+ *  answer for the latest epoch.
+ *
+ *  Readers never block the writer or each other. Writers are serialised
+ *  among themselves by this object's lock.
+ *
+ ****************************************************************************/
+
+public class ConcurrentPercolation {
+
+    private static final int LOWER_INDEX_BOUND = 1;
+    private static final int MINIMUM_GRID_SIZE = 1;
+
+    // stamp of a site that has not opened or filled yet; epochs start at 1,
+    // so the arrays need no initialising
+    private static final int NEVER = 0;
+
+    private final int N;
+
+    // the writer's grid, only used while holding this object's lock
+    private final Percolation percolation;
+
+    // epochs at which each site opened and became full, and at which the
+    // system first percolated, or NEVER
+    private final int[] openedAt;
+    private final int[] filledAt;
+    private int percolatedAt;
+
+    // the latest epoch whose stamps are all written
+    private volatile int epoch;
+
+    // the epoch the open in progress stamps its sites with
+    private int stamp;
+
+    // create N-by-N grid, with all sites blocked
+    public ConcurrentPercolation(int N) {
+        if (N < MINIMUM_GRID_SIZE) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        this.N = N;
+        this.openedAt = new int[N * N];
+        this.filledAt = new int[N * N];
+        this.percolatedAt = NEVER;
+        this.epoch = 0;
+        this.stamp = 0;
+
+        this.percolation = new Percolation(N);
+        this.percolation.setListener(new PercolationListener() {
+            @Override
+            public void opened(int i, int j) {
+                openedAt[computeGridIndex(i, j)] = stamp;
+            }
+
+            @Override
+            public void filled(int i, int j) {
+                filledAt[computeGridIndex(i, j)] = stamp;
+            }
+        });
+    }
+
+    // open site (row i, column j) if it is not already
+    public synchronized void open(int i, int j) {
+        validateGridArguments(i, j);
+        if (this.percolation.isOpen(i, j)) {
+            return;
+        }
+
+        this.stamp = this.epoch + 1;
+        this.percolation.open(i, j);
+        if (this.percolatedAt == NEVER && this.percolation.percolates()) {
+            this.percolatedAt = this.stamp;
+        }
+        this.epoch = this.stamp;
+    }
+
+    private void validateGridArguments(int i, int j) {
+        if (i < LOWER_INDEX_BOUND || j < LOWER_INDEX_BOUND || i > N || j > N) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private int computeGridIndex(int i, int j) {
+        return ((i - 1) * N) + (j - 1);
+    }
+
+    // the grid as it is now; its answers never change, however many sites
+    // are opened later
+    public Snapshot snapshot() {
+        return new Snapshot(this.epoch);
+    }
+
+    // is site (row i, column j) open?
+    public boolean isOpen(int i, int j) {
+        return snapshot().isOpen(i, j);
+    }
+
+    // is site (row i, column j) full?
+    public boolean isFull(int i, int j) {
+        return snapshot().isFull(i, j);
+    }
+
+    // number of open sites
+    public int numberOfOpenSites() {
+        return this.epoch;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return snapshot().percolates();
+    }
+
+    // the state of the grid after a given number of opens
+    public final class Snapshot {
+
+        private final int epoch;
+
+        private Snapshot(int epoch) {
+            this.epoch = epoch;
+        }
+
+        // is site (row i, column j) open?
+        public boolean isOpen(int i, int j) {
+            validateGridArguments(i, j);
+            return happened(openedAt[computeGridIndex(i, j)]);
+        }
+
+        // is site (row i, column j) full?
+        public boolean isFull(int i, int j) {
+            validateGridArguments(i, j);
+            return happened(filledAt[computeGridIndex(i, j)]);
+        }
+
+        // number of open sites
+        public int numberOfOpenSites() {
+            return this.epoch;
+        }
+
+        // does the system percolate?
+        public boolean percolates() {
+            return happened(percolatedAt);
+        }
+
+        private boolean happened(int at) {
+            return at != NEVER && at <= this.epoch;
+        }
+    }
+}
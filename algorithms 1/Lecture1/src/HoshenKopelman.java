@@ -0,0 +1,278 @@
+/****************************************************************************
+ *  Compilation:  javac HoshenKopelman.java
+ *  Execution:    java HoshenKopelman <width> <height> <p> [<seed>]
+ *                java HoshenKopelman < grid.txt
+ *  Dependencies: StdIn.java StdOut.java
+ *
+ *  Row-streaming percolation check. Rows of the grid are added one at a
+ *  time, top row first, and clusters are labelled Hoshen-Kopelman style:
+ *  only the labels of the previous and current row are kept, together
+ *  with a small union-find over those labels that records each cluster's
+ *  site count and whether it touches the top row. Memory is O(width)
+ *  whatever the height of the lattice.
+ *
+ *  When read from standard input, each line is one row, with '1' for an
+ *  open site and any other character for a blocked one.
+ *
+ ****************************************************************************/
+
+import java.util.SplittableRandom;
+
+public class HoshenKopelman {
+
+    private static final int BLOCKED = -1;
+
+    private final int width;
+
+    // labels of the previous and current row; previous row labels are
+    // compacted into [0, width), current row labels are issued from width
+    private int[] previous;
+    private int[] current;
+
+    // union-find over the labels of two consecutive rows
+    private final int[] parent;
+    private final long[] count;
+    private final boolean[] top;
+
+    // scratch space for compacting the current row's labels
+    private final int[] remap;
+    private final long[] compactCount;
+    private final boolean[] compactTop;
+
+    private long rows;
+    private int liveLabels;
+    private long finishedFullSites;
+    private boolean percolates;
+
+    // create an empty lattice of the given width
+    public HoshenKopelman(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.width = width;
+        this.previous = new int[width];
+        this.current = new int[width];
+        this.parent = new int[2 * width];
+        this.count = new long[2 * width];
+        this.top = new boolean[2 * width];
+        this.remap = new int[2 * width];
+        this.compactCount = new long[width];
+        this.compactTop = new boolean[width];
+
+        for (int c = 0; c < width; c++) {
+            this.previous[c] = BLOCKED;
+        }
+        this.rows = 0;
+        this.liveLabels = 0;
+        this.finishedFullSites = 0;
+        this.percolates = false;
+    }
+
+    // append the next row below the rows added so far
+    public void addRow(boolean[] open) {
+        if (open.length != width) {
+            throw new IllegalArgumentException();
+        }
+
+        int nextLabel = width;
+        for (int c = 0; c < width; c++) {
+            if (!open[c]) {
+                this.current[c] = BLOCKED;
+                continue;
+            }
+
+            int label = BLOCKED;
+            if (c > 0 && this.current[c - 1] != BLOCKED) {
+                label = this.current[c - 1];
+            }
+            if (this.previous[c] != BLOCKED) {
+                if (label == BLOCKED) {
+                    label = this.previous[c];
+                } else {
+                    union(label, this.previous[c]);
+                }
+            }
+            if (label == BLOCKED) {
+                label = nextLabel++;
+                this.parent[label] = label;
+                this.count[label] = 0;
+                this.top[label] = (this.rows == 0);
+            }
+
+            this.current[c] = label;
+            this.count[find(label)]++;
+        }
+
+        finishDeadClusters(nextLabel);
+        compactLabels();
+        this.rows++;
+    }
+
+    // clusters of the previous row with no site in the current row can no
+    // longer grow; count their sites now if they are connected to the top
+    private void finishDeadClusters(int nextLabel) {
+        for (int label = 0; label < nextLabel; label++) {
+            this.remap[label] = BLOCKED;
+        }
+        for (int c = 0; c < width; c++) {
+            if (this.current[c] != BLOCKED) {
+                this.remap[find(this.current[c])] = 0;
+            }
+        }
+        for (int label = 0; label < this.liveLabels; label++) {
+            int root = find(label);
+            if (this.remap[root] == BLOCKED) {
+                if (this.top[root]) {
+                    this.finishedFullSites += this.count[root];
+                }
+                this.remap[root] = 0;
+                this.top[root] = false;
+            }
+        }
+    }
+
+    // relabel the current row's clusters as [0, liveLabels) so that they
+    // become the previous row of the next call
+    private void compactLabels() {
+        int labels = 0;
+        for (int c = 0; c < width; c++) {
+            if (this.current[c] != BLOCKED) {
+                this.remap[find(this.current[c])] = BLOCKED;
+            }
+        }
+
+        this.percolates = false;
+        for (int c = 0; c < width; c++) {
+            if (this.current[c] == BLOCKED) {
+                continue;
+            }
+
+            int root = find(this.current[c]);
+            if (this.remap[root] == BLOCKED) {
+                this.remap[root] = labels;
+                this.compactCount[labels] = this.count[root];
+                this.compactTop[labels] = this.top[root];
+                this.percolates |= this.top[root];
+                labels++;
+            }
+            this.current[c] = this.remap[root];
+        }
+
+        for (int label = 0; label < labels; label++) {
+            this.parent[label] = label;
+            this.count[label] = this.compactCount[label];
+            this.top[label] = this.compactTop[label];
+        }
+        this.liveLabels = labels;
+
+        int[] swap = this.previous;
+        this.previous = this.current;
+        this.current = swap;
+    }
+
+    // find with path halving
+    private int find(int label) {
+        while (this.parent[label] != label) {
+            this.parent[label] = this.parent[this.parent[label]];
+            label = this.parent[label];
+        }
+        return label;
+    }
+
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+
+        // keep the smaller label as root, as in classic Hoshen-Kopelman
+        if (rootQ < rootP) {
+            int swap = rootP;
+            rootP = rootQ;
+            rootQ = swap;
+        }
+        this.parent[rootQ] = rootP;
+        this.count[rootP] += this.count[rootQ];
+        this.top[rootP] |= this.top[rootQ];
+    }
+
+    // number of rows added so far
+    public long rows() {
+        return this.rows;
+    }
+
+    // does an open path join the top row to the last row added?
+    public boolean percolates() {
+        return this.percolates;
+    }
+
+    // number of open sites connected to the top row
+    public long fullSites() {
+        long full = this.finishedFullSites;
+        for (int label = 0; label < this.liveLabels; label++) {
+            if (this.top[label]) {
+                full += this.count[label];
+            }
+        }
+        return full;
+    }
+
+    // stream a random width-by-height lattice with site vacancy p
+    public static HoshenKopelman random(int width, long height, double p,
+            long seed) {
+        if (height <= 0 || p < 0.0 || p > 1.0) {
+            throw new IllegalArgumentException();
+        }
+
+        HoshenKopelman lattice = new HoshenKopelman(width);
+        SplittableRandom random = new SplittableRandom(seed);
+        boolean[] row = new boolean[width];
+        for (long r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                row[c] = random.nextDouble() < p;
+            }
+            lattice.addRow(row);
+        }
+        return lattice;
+    }
+
+    // test client, see the header comment
+    public static void main(String[] args) {
+        HoshenKopelman lattice;
+        if (args.length == 3 || args.length == 4) {
+            long seed = args.length == 4 ? Long.parseLong(args[3]) : System
+                    .nanoTime();
+            lattice = random(Integer.parseInt(args[0]),
+                    Long.parseLong(args[1]), Double.parseDouble(args[2]), seed);
+        } else if (args.length == 0) {
+            lattice = null;
+            while (StdIn.hasNextLine()) {
+                String line = StdIn.readLine();
+                if (lattice == null) {
+                    lattice = new HoshenKopelman(line.length());
+                }
+                boolean[] row = new boolean[line.length()];
+                for (int c = 0; c < row.length; c++) {
+                    row[c] = line.charAt(c) == '1';
+                }
+                lattice.addRow(row);
+            }
+            if (lattice == null) {
+                StdOut.println("Empty grid");
+                return;
+            }
+        } else {
+            StdOut.println("Invalid arguments: "
+                    + "command line is HoshenKopelman <width> <height> <p> "
+                    + "[<seed>] or HoshenKopelman < grid.txt");
+            return;
+        }
+
+        StdOut.println("rows\t\t" + lattice.rows());
+        StdOut.println("full sites\t" + lattice.fullSites());
+        StdOut.println(lattice.percolates() ? "percolates"
+                : "does not percolate");
+    }
+}
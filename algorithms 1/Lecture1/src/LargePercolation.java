@@ -0,0 +1,336 @@
+/****************************************************************************
+ *  Compilation:  javac LargePercolation.java
+ *  Execution:    java LargePercolation <N> <seed> [<file>]
+ *  Dependencies: StdOut.java
+ *
+ *  Percolation for grids too large for int indexing or the Java heap.
+ *  Sites are indexed by long, and the union-find parent links, the root
+ *  rank/state bytes and a bit-packed open map are all held off heap in
+ *  direct ByteBuffers, or in a memory-mapped file when one is given.
+ *
+ *  Direct buffers count against -XX:MaxDirectMemorySize, which defaults to
+ *  the maximum heap size, so LargePercolation(N) needs about 9 bytes per
+ *  site of direct memory. For grids larger than memory, such as 10^10
+ *  sites with a small heap, use the file-backed constructor, whose pages
+ *  the operating system moves between memory and disk as needed.
+ *
+ *  Storage is zero initialised, so a parent entry of 0 means "self" and
+ *  other entries hold parent index + 1; nothing has to be written per site
+ *  at construction time.
+ *
+ ****************************************************************************/
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.SplittableRandom;
+
+public class LargePercolation {
+
+    private static final int LOWER_INDEX_BOUND = 1;
+    private static final int MINIMUM_GRID_SIZE = 1;
+
+    // root state bits, sharing a byte with the union-by-rank rank
+    private static final int RANK_MASK = 0x3f;
+    private static final int TOP = 0x40;
+    private static final int BOTTOM = 0x80;
+    private static final int SPANNING = TOP | BOTTOM;
+
+    // every storage region is split into chunks of 2^CHUNK_BITS bytes so
+    // that a single ByteBuffer never needs more than an int index
+    private static final int CHUNK_BITS = 27;
+    private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final int N;
+    private final long sites;
+    private final LongBuffer[] parent;
+    private final ByteBuffer[] state;
+    private final LongBuffer[] open;
+    private final RandomAccessFile file;
+    private boolean percolates;
+
+    // create N-by-N grid, with all sites blocked, in direct memory; limited
+    // by -XX:MaxDirectMemorySize
+    public LargePercolation(int N) {
+        validateGridSize(N);
+
+        this.N = N;
+        this.sites = (long) N * N;
+        this.file = null;
+        this.parent = asLongBuffers(allocate(this.sites * 8, null, 0));
+        this.state = allocate(this.sites, null, 0);
+        this.open = asLongBuffers(allocate(openMapBytes(this.sites), null, 0));
+        this.percolates = false;
+    }
+
+    // create N-by-N grid, with all sites blocked, backed by a new or
+    // truncated file that is mapped into memory; the file is closed again
+    // if it cannot be sized or mapped
+    public LargePercolation(int N, String fileName) throws IOException {
+        validateGridSize(N);
+
+        this.N = N;
+        this.sites = (long) N * N;
+        this.file = new RandomAccessFile(fileName, "rw");
+
+        long parentBytes = this.sites * 8;
+        long stateBytes = this.sites;
+        long openBytes = openMapBytes(this.sites);
+        boolean mapped = false;
+        try {
+            this.file.setLength(0);
+            this.file.setLength(parentBytes + stateBytes + openBytes);
+
+            FileChannel channel = this.file.getChannel();
+            this.parent = asLongBuffers(allocate(parentBytes, channel, 0));
+            this.state = allocate(stateBytes, channel, parentBytes);
+            this.open = asLongBuffers(allocate(openBytes, channel, parentBytes
+                    + stateBytes));
+            mapped = true;
+        } finally {
+            if (!mapped) {
+                this.file.close();
+            }
+        }
+        this.percolates = false;
+    }
+
+    private static void validateGridSize(int N) {
+        if (N < MINIMUM_GRID_SIZE) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private static long openMapBytes(long sites) {
+        return ((sites + 63) >>> 6) * 8;
+    }
+
+    // split a region of the given length into chunks, either direct or
+    // mapped from the channel starting at offset
+    private static ByteBuffer[] allocate(long length, FileChannel channel,
+            long offset) {
+        int chunks = (int) ((length + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+        ByteBuffer[] buffers = new ByteBuffer[chunks];
+        for (int c = 0; c < chunks; c++) {
+            int size = (int) Math.min(CHUNK_SIZE, length - (c * CHUNK_SIZE));
+            if (channel == null) {
+                buffers[c] = ByteBuffer.allocateDirect(size);
+            } else {
+                buffers[c] = map(channel, offset + (c * CHUNK_SIZE), size);
+            }
+            buffers[c].order(ByteOrder.nativeOrder());
+        }
+        return buffers;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position,
+            int size) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static LongBuffer[] asLongBuffers(ByteBuffer[] buffers) {
+        LongBuffer[] longs = new LongBuffer[buffers.length];
+        for (int c = 0; c < buffers.length; c++) {
+            longs[c] = buffers[c].asLongBuffer();
+        }
+        return longs;
+    }
+
+    // open site (row i, column j) if it is not already
+    public void open(int i, int j) {
+        validateGridArguments(i, j);
+
+        long index = computeGridIndex(i, j);
+        if (isOpenIndex(index)) {
+            return;
+        }
+
+        long row = i - 1;
+        long column = j - 1;
+        setOpen(index);
+
+        int status = 0;
+        if (row == 0) {
+            status |= TOP;
+        }
+        if (row == N - 1) {
+            status |= BOTTOM;
+        }
+        setState(index, status);
+
+        if (row > 0) {
+            status |= joinIfOpen(index, index - N);
+        }
+        if (row < N - 1) {
+            status |= joinIfOpen(index, index + N);
+        }
+        if (column > 0) {
+            status |= joinIfOpen(index, index - 1);
+        }
+        if (column < N - 1) {
+            status |= joinIfOpen(index, index + 1);
+        }
+
+        long root = find(index);
+        setState(root, getState(root) | status);
+
+        if ((status & SPANNING) == SPANNING) {
+            this.percolates = true;
+        }
+    }
+
+    // union index with neighbour if the neighbour is open, returning the
+    // state bits of the neighbour's root before the union
+    private int joinIfOpen(long index, long neighbour) {
+        if (!isOpenIndex(neighbour)) {
+            return 0;
+        }
+
+        long neighbourRoot = find(neighbour);
+        long indexRoot = find(index);
+        int neighbourState = getState(neighbourRoot);
+        if (neighbourRoot == indexRoot) {
+            return neighbourState & SPANNING;
+        }
+
+        // union by rank, with the merged state bits kept on the new root
+        int indexState = getState(indexRoot);
+        int neighbourRank = neighbourState & RANK_MASK;
+        int indexRank = indexState & RANK_MASK;
+        int merged = (indexState | neighbourState) & SPANNING;
+        if (indexRank < neighbourRank) {
+            setParent(indexRoot, neighbourRoot);
+            setState(neighbourRoot, neighbourRank | merged);
+        } else if (indexRank > neighbourRank) {
+            setParent(neighbourRoot, indexRoot);
+            setState(indexRoot, indexRank | merged);
+        } else {
+            setParent(neighbourRoot, indexRoot);
+            setState(indexRoot, (indexRank + 1) | merged);
+        }
+        return neighbourState & SPANNING;
+    }
+
+    // find with path halving
+    private long find(long index) {
+        long link = getParent(index);
+        while (link != index) {
+            long grandparent = getParent(link);
+            setParent(index, grandparent);
+            index = grandparent;
+            link = getParent(index);
+        }
+        return index;
+    }
+
+    private long getParent(long index) {
+        long stored = this.parent[(int) (index >>> (CHUNK_BITS - 3))]
+                .get((int) (index & (CHUNK_MASK >>> 3)));
+        return stored == 0 ? index : stored - 1;
+    }
+
+    private void setParent(long index, long link) {
+        this.parent[(int) (index >>> (CHUNK_BITS - 3))].put(
+                (int) (index & (CHUNK_MASK >>> 3)), link + 1);
+    }
+
+    private int getState(long index) {
+        return this.state[(int) (index >>> CHUNK_BITS)].get(
+                (int) (index & CHUNK_MASK)) & 0xff;
+    }
+
+    private void setState(long index, int status) {
+        this.state[(int) (index >>> CHUNK_BITS)].put(
+                (int) (index & CHUNK_MASK), (byte) status);
+    }
+
+    private boolean isOpenIndex(long index) {
+        long word = index >>> 6;
+        return (this.open[(int) (word >>> (CHUNK_BITS - 3))].get(
+                (int) (word & (CHUNK_MASK >>> 3))) & (1L << index)) != 0;
+    }
+
+    private void setOpen(long index) {
+        long word = index >>> 6;
+        LongBuffer buffer = this.open[(int) (word >>> (CHUNK_BITS - 3))];
+        int position = (int) (word & (CHUNK_MASK >>> 3));
+        buffer.put(position, buffer.get(position) | (1L << index));
+    }
+
+    private void validateGridArguments(int i, int j) {
+        if (i < LOWER_INDEX_BOUND || j < LOWER_INDEX_BOUND || i > N || j > N) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private long computeGridIndex(int i, int j) {
+        return ((long) (i - 1) * N) + (j - 1);
+    }
+
+    // is site (row i, column j) open?
+    public boolean isOpen(int i, int j) {
+        validateGridArguments(i, j);
+        return isOpenIndex(computeGridIndex(i, j));
+    }
+
+    // is site (row i, column j) full?
+    public boolean isFull(int i, int j) {
+        validateGridArguments(i, j);
+
+        long index = computeGridIndex(i, j);
+        return isOpenIndex(index) && (getState(find(index)) & TOP) != 0;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return this.percolates;
+    }
+
+    // release the backing file, if any; the grid must not be used afterwards
+    public void close() throws IOException {
+        if (this.file != null) {
+            this.file.close();
+        }
+    }
+
+    // test client, opens random sites of one grid until it percolates
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 3) {
+            StdOut.println("Invalid arguments: "
+                    + "command line is LargePercolation <N> <seed> [<file>]");
+            return;
+        }
+
+        int N = Integer.parseInt(args[0]);
+        SplittableRandom random = new SplittableRandom(Long.parseLong(args[1]));
+        LargePercolation percolation;
+        if (args.length == 2) {
+            percolation = new LargePercolation(N);
+        } else {
+            percolation = new LargePercolation(N, args[2]);
+        }
+
+        long count = 0;
+        while (!percolation.percolates()) {
+            int i = random.nextInt(N) + 1;
+            int j = random.nextInt(N) + 1;
+            if (!percolation.isOpen(i, j)) {
+                percolation.open(i, j);
+                count++;
+            }
+        }
+        percolation.close();
+
+        StdOut.println("percolates after " + count + " opens, p = "
+                + (count / ((double) N * N)));
+    }
+}
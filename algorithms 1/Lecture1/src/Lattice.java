@@ -0,0 +1,260 @@
+/****************************************************************************
+ *  Compilation:  javac Lattice.java
+ *  Dependencies: none
+ *
+ *  Immutable site graph for LatticePercolation, stored in compressed
+ *  sparse row form: the neighbours of site s are neighbours[offsets[s]]
+ *  to neighbours[offsets[s + 1] - 1]. Each site may also belong to the
+ *  top and/or bottom boundary set that percolation is measured between.
+ *
+ *  Factories build the square, triangular, hexagonal (honeycomb) and 3D
+ *  cubic lattices with sites numbered in row-major order, and arbitrary
+ *  graphs from an edge list.
+ *
+ ****************************************************************************/
+
+public final class Lattice {
+
+    static final byte TOP = 2;
+    static final byte BOTTOM = 4;
+
+    final int[] offsets;
+    final int[] neighbours;
+    final byte[] boundary;
+
+    private Lattice(int[] offsets, int[] neighbours, byte[] boundary) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.boundary = boundary;
+    }
+
+    // number of sites
+    public int sites() {
+        return this.boundary.length;
+    }
+
+    // number of neighbours of site
+    public int degree(int site) {
+        validateSite(site);
+        return this.offsets[site + 1] - this.offsets[site];
+    }
+
+    // k-th neighbour of site
+    public int neighbour(int site, int k) {
+        if (k < 0 || k >= degree(site)) {
+            throw new IndexOutOfBoundsException();
+        }
+        return this.neighbours[this.offsets[site] + k];
+    }
+
+    // is site in the top boundary set?
+    public boolean isTop(int site) {
+        validateSite(site);
+        return (this.boundary[site] & TOP) != 0;
+    }
+
+    // is site in the bottom boundary set?
+    public boolean isBottom(int site) {
+        validateSite(site);
+        return (this.boundary[site] & BOTTOM) != 0;
+    }
+
+    private void validateSite(int site) {
+        if (site < 0 || site >= this.boundary.length) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    // N-by-N square lattice, four neighbours per site
+    public static Lattice square(int N) {
+        validateSize(N);
+
+        Edges edges = new Edges(N * N, 2 * N * N);
+        for (int row = 0; row < N; row++) {
+            for (int column = 0; column < N; column++) {
+                int site = (row * N) + column;
+                if (column < N - 1) {
+                    edges.add(site, site + 1);
+                }
+                if (row < N - 1) {
+                    edges.add(site, site + N);
+                }
+            }
+        }
+        return edges.toLattice(rowBoundary(N, N));
+    }
+
+    // N-by-N triangular lattice, six neighbours per site: the square
+    // lattice plus the diagonal from each site to the one below and left
+    public static Lattice triangular(int N) {
+        validateSize(N);
+
+        Edges edges = new Edges(N * N, 3 * N * N);
+        for (int row = 0; row < N; row++) {
+            for (int column = 0; column < N; column++) {
+                int site = (row * N) + column;
+                if (column < N - 1) {
+                    edges.add(site, site + 1);
+                }
+                if (row < N - 1) {
+                    edges.add(site, site + N);
+                    if (column > 0) {
+                        edges.add(site, site + N - 1);
+                    }
+                }
+            }
+        }
+        return edges.toLattice(rowBoundary(N, N));
+    }
+
+    // N-by-N hexagonal (honeycomb) lattice in brick-wall form, three
+    // neighbours per site: left, right, and the site below when row +
+    // column is even or the site above when it is odd
+    public static Lattice hexagonal(int N) {
+        validateSize(N);
+
+        Edges edges = new Edges(N * N, 2 * N * N);
+        for (int row = 0; row < N; row++) {
+            for (int column = 0; column < N; column++) {
+                int site = (row * N) + column;
+                if (column < N - 1) {
+                    edges.add(site, site + 1);
+                }
+                if (row < N - 1 && ((row + column) & 1) == 0) {
+                    edges.add(site, site + N);
+                }
+            }
+        }
+        return edges.toLattice(rowBoundary(N, N));
+    }
+
+    // N-by-N-by-N simple cubic lattice, six neighbours per site, with the
+    // first layer as top and the last layer as bottom
+    public static Lattice cubic(int N) {
+        validateSize(N);
+        if ((long) N * N * N > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        }
+
+        int layer = N * N;
+        Edges edges = new Edges(layer * N, 3 * layer * N);
+        for (int z = 0; z < N; z++) {
+            for (int row = 0; row < N; row++) {
+                for (int column = 0; column < N; column++) {
+                    int site = (z * layer) + (row * N) + column;
+                    if (column < N - 1) {
+                        edges.add(site, site + 1);
+                    }
+                    if (row < N - 1) {
+                        edges.add(site, site + N);
+                    }
+                    if (z < N - 1) {
+                        edges.add(site, site + layer);
+                    }
+                }
+            }
+        }
+        return edges.toLattice(rowBoundary(N, layer));
+    }
+
+    // arbitrary graph on the given number of sites, with an undirected edge
+    // between from[k] and to[k] for every k
+    public static Lattice graph(int sites, int[] from, int[] to, int[] top,
+            int[] bottom) {
+        if (sites <= 0 || from.length != to.length) {
+            throw new IllegalArgumentException();
+        }
+
+        Edges edges = new Edges(sites, from.length);
+        for (int k = 0; k < from.length; k++) {
+            if (from[k] < 0 || from[k] >= sites || to[k] < 0
+                    || to[k] >= sites) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (from[k] != to[k]) {
+                edges.add(from[k], to[k]);
+            }
+        }
+
+        byte[] boundary = new byte[sites];
+        markBoundary(boundary, top, TOP);
+        markBoundary(boundary, bottom, BOTTOM);
+        return edges.toLattice(boundary);
+    }
+
+    private static void markBoundary(byte[] boundary, int[] sites, byte bit) {
+        for (int k = 0; k < sites.length; k++) {
+            if (sites[k] < 0 || sites[k] >= boundary.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            boundary[sites[k]] |= bit;
+        }
+    }
+
+    private static void validateSize(int N) {
+        if (N <= 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    // the first layer sites as top and the last layer sites as bottom, for
+    // a lattice of N layers of the given size
+    private static byte[] rowBoundary(int N, int layer) {
+        byte[] boundary = new byte[N * layer];
+        for (int k = 0; k < layer; k++) {
+            boundary[k] |= TOP;
+            boundary[((N - 1) * layer) + k] |= BOTTOM;
+        }
+        return boundary;
+    }
+
+    // growable list of undirected edges, converted to CSR form
+    private static final class Edges {
+
+        private final int sites;
+        private int[] from;
+        private int[] to;
+        private int size;
+
+        Edges(int sites, int capacity) {
+            this.sites = sites;
+            this.from = new int[Math.max(capacity, 1)];
+            this.to = new int[Math.max(capacity, 1)];
+            this.size = 0;
+        }
+
+        void add(int p, int q) {
+            if (this.size == this.from.length) {
+                int[] grownFrom = new int[this.size * 2];
+                int[] grownTo = new int[this.size * 2];
+                System.arraycopy(this.from, 0, grownFrom, 0, this.size);
+                System.arraycopy(this.to, 0, grownTo, 0, this.size);
+                this.from = grownFrom;
+                this.to = grownTo;
+            }
+            this.from[this.size] = p;
+            this.to[this.size] = q;
+            this.size++;
+        }
+
+        Lattice toLattice(byte[] boundary) {
+            int[] offsets = new int[this.sites + 1];
+            for (int k = 0; k < this.size; k++) {
+                offsets[this.from[k] + 1]++;
+                offsets[this.to[k] + 1]++;
+            }
+            for (int site = 0; site < this.sites; site++) {
+                offsets[site + 1] += offsets[site];
+            }
+
+            int[] next = new int[this.sites];
+            System.arraycopy(offsets, 0, next, 0, this.sites);
+            int[] neighbours = new int[2 * this.size];
+            for (int k = 0; k < this.size; k++) {
+                neighbours[next[this.from[k]]++] = this.to[k];
+                neighbours[next[this.to[k]]++] = this.from[k];
+            }
+            return new Lattice(offsets, neighbours, boundary);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/****************************************************************************
+ *  Compilation:  javac LatticePercolation.java
+ *  Execution:    java LatticePercolation <lattice> <N> <T> [<seed>]
+ *  Dependencies: Lattice.java UnionFind.java PackedUF.java StdStats.java
+ *                StdOut.java
+ *
+ *  Percolation on any Lattice: the neighbours of a site come from the
+ *  lattice's compressed sparse row arrays rather than from square-grid
+ *  arithmetic. As in Percolation, the root of each component carries TOP
+ *  and BOTTOM bits for the lattice's boundary sets, and the system
+ *  percolates once a component holds both.
+ *
+ *  The test client estimates the percolation threshold of the square,
+ *  triangular, hexagonal or cubic lattice of side N over T trials.
+ *
+ ****************************************************************************/
+
+import java.util.SplittableRandom;
+
+public class LatticePercolation {
+
+    private static final byte OPEN = 1;
+    private static final byte TOP = Lattice.TOP;
+    private static final byte BOTTOM = Lattice.BOTTOM;
+    private static final byte SPANNING = TOP | BOTTOM;
+
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final byte[] boundary;
+    private final byte[] state;
+    private final UnionFind unionFind;
+    private int openSites;
+    private boolean percolates;
+
+    // create the lattice with all sites blocked
+    public LatticePercolation(Lattice lattice) {
+        this(lattice, new PackedUF(lattice.sites()));
+    }
+
+    // create the lattice with all sites blocked, on a union-find backend
+    // of lattice.sites() sites that nothing else uses
+    public LatticePercolation(Lattice lattice, UnionFind unionFind) {
+        if (unionFind.size() != lattice.sites()
+                || unionFind.count() != lattice.sites()) {
+            throw new IllegalArgumentException();
+        }
+
+        this.offsets = lattice.offsets;
+        this.neighbours = lattice.neighbours;
+        this.boundary = lattice.boundary;
+        this.state = new byte[lattice.sites()];
+        this.unionFind = unionFind;
+        this.openSites = 0;
+        this.percolates = false;
+    }
+
+    // open site if it is not already
+    public void open(int site) {
+        validateSite(site);
+        if (isOpenSite(site)) {
+            return;
+        }
+
+        byte status = (byte) (OPEN | this.boundary[site]);
+        this.state[site] = status;
+
+        int end = this.offsets[site + 1];
+        for (int k = this.offsets[site]; k < end; k++) {
+            int neighbour = this.neighbours[k];
+            if (isOpenSite(neighbour)) {
+                status |= this.state[this.unionFind.find(neighbour)];
+                this.unionFind.union(site, neighbour);
+            }
+        }
+
+        this.state[this.unionFind.find(site)] |= status;
+        this.openSites++;
+        if ((status & SPANNING) == SPANNING) {
+            this.percolates = true;
+        }
+    }
+
+    private boolean isOpenSite(int site) {
+        return (this.state[site] & OPEN) != 0;
+    }
+
+    private void validateSite(int site) {
+        if (site < 0 || site >= this.state.length) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    // is site open?
+    public boolean isOpen(int site) {
+        validateSite(site);
+        return isOpenSite(site);
+    }
+
+    // is site connected to the top boundary set through open sites?
+    public boolean isFull(int site) {
+        validateSite(site);
+        return isOpenSite(site)
+                && (this.state[this.unionFind.find(site)] & TOP) != 0;
+    }
+
+    // number of open sites
+    public int numberOfOpenSites() {
+        return this.openSites;
+    }
+
+    // does an open path join the top and bottom boundary sets?
+    public boolean percolates() {
+        return this.percolates;
+    }
+
+    private static Lattice lattice(String name, int N) {
+        if (name.equals("square")) {
+            return Lattice.square(N);
+        } else if (name.equals("triangular")) {
+            return Lattice.triangular(N);
+        } else if (name.equals("hexagonal")) {
+            return Lattice.hexagonal(N);
+        } else if (name.equals("cubic")) {
+            return Lattice.cubic(N);
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    // test client, see the header comment
+    public static void main(String[] args) {
+        if (args.length != 3 && args.length != 4) {
+            StdOut.println("Invalid arguments: command line is "
+                    + "LatticePercolation square|triangular|hexagonal|cubic "
+                    + "<N> <T> [<seed>]");
+            return;
+        }
+
+        Lattice lattice = lattice(args[0], Integer.parseInt(args[1]));
+        int T = Integer.parseInt(args[2]);
+        SplittableRandom random = new SplittableRandom(
+                args.length == 4 ? Long.parseLong(args[3]) : System.nanoTime());
+
+        int[] sites = new int[lattice.sites()];
+        double[] results = new double[T];
+        for (int t = 0; t < T; t++) {
+            for (int k = 0; k < sites.length; k++) {
+                sites[k] = k;
+            }
+
+            LatticePercolation percolation = new LatticePercolation(lattice);
+            int count = 0;
+            while (!percolation.percolates()) {
+                int pick = count + random.nextInt(sites.length - count);
+                int site = sites[pick];
+                sites[pick] = sites[count];
+                sites[count] = site;
+                percolation.open(site);
+                count++;
+            }
+            results[t] = count / (double) sites.length;
+        }
+
+        StdOut.println("mean\t\t\t\t" + StdStats.mean(results));
+        StdOut.println("stddev\t\t\t\t" + StdStats.stddev(results));
+    }
+}
@@ -0,0 +1,85 @@
+/****************************************************************************
+ *  Compilation:  javac OpenSequenceConverter.java
+ *  Execution:    java OpenSequenceConverter -binary input.txt output.bin
+ *                java OpenSequenceConverter -text input.bin output.txt
+ *  Dependencies: OpenSequenceReader.java
+ *
+ *  Converts open-sequence files between the text format read by
+ *  PercolationVisualizer and the compact varint binary format. Either
+ *  format is accepted as input.
+ *
+ ****************************************************************************/
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class OpenSequenceConverter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // write the sequence as the "PSEQ" magic followed by varints
+    public static void writeBinary(OpenSequenceReader in, OutputStream out)
+            throws IOException {
+        out.write(OpenSequenceReader.MAGIC);
+        writeVarint(out, in.gridSize());
+        while (in.next()) {
+            writeVarint(out, in.row());
+            writeVarint(out, in.column());
+        }
+    }
+
+    // write the sequence as text, one site per line
+    public static void writeText(OpenSequenceReader in, OutputStream out)
+            throws IOException {
+        writeDecimal(out, in.gridSize());
+        out.write('\n');
+        while (in.next()) {
+            writeDecimal(out, in.row());
+            out.write(' ');
+            writeDecimal(out, in.column());
+            out.write('\n');
+        }
+    }
+
+    private static void writeVarint(OutputStream out, int value)
+            throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeDecimal(OutputStream out, int value)
+            throws IOException {
+        if (value >= 10) {
+            writeDecimal(out, value / 10);
+        }
+        out.write('0' + (value % 10));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3
+                || !(args[0].equals("-binary") || args[0].equals("-text"))) {
+            StdOut.println("Invalid arguments: command line is "
+                    + "OpenSequenceConverter -binary|-text <input> <output>");
+            return;
+        }
+
+        OpenSequenceReader in = new OpenSequenceReader(args[1]);
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(
+                args[2]), BUFFER_SIZE);
+        try {
+            if (args[0].equals("-binary")) {
+                writeBinary(in, out);
+            } else {
+                writeText(in, out);
+            }
+        } finally {
+            out.close();
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/****************************************************************************
+ *  Compilation:  javac OpenSequenceReader.java
+ *  Dependencies: none
+ *
+ *  Streaming reader for open-sequence files: the grid size N followed by
+ *  the (row i, column j) pairs of the sites to open. The file is memory
+ *  mapped one window at a time and parsed byte by byte, without creating
+ *  an object per token.
+ *
+ *  Two formats are recognised by their first bytes:
+ *
+ *    - text: whitespace separated ASCII integers, as read by
+ *      PercolationVisualizer
+ *    - binary: the magic bytes "PSEQ", then N and each i and j as
+ *      unsigned LEB128 varints
+ *
+ *  OpenSequenceConverter converts between the two.
+ *
+ ****************************************************************************/
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.InputMismatchException;
+
+public class OpenSequenceReader {
+
+    // first bytes of a binary open-sequence file
+    static final byte[] MAGIC = { 'P', 'S', 'E', 'Q' };
+
+    // size of each mapped window of the file
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private static final int END_OF_FILE = -1;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long length;
+    private final boolean binary;
+    private final int N;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int row;
+    private int column;
+
+    // open the file and read its grid size
+    public OpenSequenceReader(String fileName) throws IOException {
+        this.file = new RandomAccessFile(fileName, "r");
+        this.channel = this.file.getChannel();
+        this.length = this.channel.size();
+        this.windowStart = 0;
+        this.window = map(0);
+
+        this.binary = hasMagic();
+        if (this.binary) {
+            this.window.position(MAGIC.length);
+        }
+
+        int size = this.binary ? readVarint() : readText();
+        if (size == END_OF_FILE) {
+            throw new InputMismatchException("missing grid size");
+        }
+        this.N = size;
+    }
+
+    private MappedByteBuffer map(long start) throws IOException {
+        long size = Math.min(WINDOW_SIZE, this.length - start);
+        return this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+    }
+
+    private boolean hasMagic() {
+        if (this.window.limit() < MAGIC.length) {
+            return false;
+        }
+        for (int k = 0; k < MAGIC.length; k++) {
+            if (this.window.get(k) != MAGIC[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // grid size N read from the head of the file
+    public int gridSize() {
+        return this.N;
+    }
+
+    // is the file in the binary format?
+    public boolean isBinary() {
+        return this.binary;
+    }
+
+    // advance to the next site, returning false at the end of the file
+    public boolean next() {
+        int i = this.binary ? readVarint() : readText();
+        if (i == END_OF_FILE) {
+            return false;
+        }
+
+        int j = this.binary ? readVarint() : readText();
+        if (j == END_OF_FILE) {
+            throw new InputMismatchException("row without column");
+        }
+
+        this.row = i;
+        this.column = j;
+        return true;
+    }
+
+    // row i of the current site
+    public int row() {
+        return this.row;
+    }
+
+    // column j of the current site
+    public int column() {
+        return this.column;
+    }
+
+    public void close() throws IOException {
+        this.file.close();
+    }
+
+    // next byte of the file, moving on to the following window as needed
+    private int read() {
+        if (!this.window.hasRemaining()) {
+            long next = this.windowStart + this.window.limit();
+            if (next >= this.length) {
+                return END_OF_FILE;
+            }
+            try {
+                this.window = map(next);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            this.windowStart = next;
+        }
+        return this.window.get() & 0xff;
+    }
+
+    // next non-negative decimal integer, or END_OF_FILE
+    private int readText() {
+        int b = read();
+        while (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+            b = read();
+        }
+        if (b == END_OF_FILE) {
+            return END_OF_FILE;
+        }
+
+        long value = 0;
+        if (b < '0' || b > '9') {
+            throw new InputMismatchException("unexpected byte " + b);
+        }
+        while (b >= '0' && b <= '9') {
+            value = (value * 10) + (b - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw new InputMismatchException("integer too large");
+            }
+            b = read();
+        }
+        if (b != END_OF_FILE && b != ' ' && b != '\n' && b != '\r'
+                && b != '\t') {
+            throw new InputMismatchException("unexpected byte " + b);
+        }
+        return (int) value;
+    }
+
+    // next unsigned LEB128 integer, or END_OF_FILE; a non-negative int
+    // takes at most five bytes, the last holding only its top 4 bits
+    private int readVarint() {
+        int b = read();
+        if (b == END_OF_FILE) {
+            return END_OF_FILE;
+        }
+
+        int value = 0;
+        int shift = 0;
+        while ((b & 0x80) != 0) {
+            if (shift == 28) {
+                throw new InputMismatchException("varint too long");
+            }
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+            b = read();
+            if (b == END_OF_FILE) {
+                throw new InputMismatchException("truncated varint");
+            }
+        }
+        if (shift == 28 && b > 0x07) {
+            throw new InputMismatchException("varint too large");
+        }
+        return value | (b << shift);
+    }
+}
@@ -0,0 +1,90 @@
+/****************************************************************************
+ *  Compilation:  javac PackedUF.java
+ *  Dependencies: UnionFind.java PercolationMetrics.java
+ *
+ *  Weighted quick-union with path halving in a single int array: a root
+ *  holds the negated size of its component, any other site holds its
+ *  parent. Half the memory of PathHalvingUF, and a find touches only one
+ *  array.
+ *
+ ****************************************************************************/
+
+public class PackedUF implements UnionFind {
+
+    private final int[] links;
+    private int count;
+
+    // create N sites, each in its own component
+    public PackedUF(int N) {
+        if (N < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.links = new int[N];
+        for (int i = 0; i < N; i++) {
+            this.links[i] = -1;
+        }
+        this.count = N;
+    }
+
+    @Override
+    public int size() {
+        return this.links.length;
+    }
+
+    @Override
+    public int count() {
+        return this.count;
+    }
+
+    @Override
+    public int find(int p) {
+        int steps = 0;
+        while (this.links[p] >= 0) {
+            int parent = this.links[p];
+            if (this.links[parent] < 0) {
+                p = parent;
+                steps++;
+                break;
+            }
+            this.links[p] = this.links[parent];
+            p = this.links[parent];
+            steps += 2;
+        }
+
+        // steps is dead code, and dropped by the JIT, unless metrics are on
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.find(steps);
+        }
+        return p;
+    }
+
+    @Override
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    @Override
+    public int union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return rootP;
+        }
+
+        // sizes are negative, so the larger component has the smaller value
+        this.count--;
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.union();
+        }
+        if (this.links[rootP] > this.links[rootQ]) {
+            this.links[rootQ] += this.links[rootP];
+            this.links[rootP] = rootQ;
+            return rootQ;
+        } else {
+            this.links[rootP] += this.links[rootQ];
+            this.links[rootQ] = rootP;
+            return rootP;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/****************************************************************************
+ *  Compilation:  javac PathHalvingUF.java
+ *  Dependencies: UnionFind.java
+ *
+ *  Weighted quick-union with path halving: every find points each visited
+ *  site at its grandparent, keeping trees nearly flat. Parents and
+ *  component sizes are kept in two int arrays.
+ *
+ ****************************************************************************/
+
+public class PathHalvingUF implements UnionFind {
+
+    private final int[] parent;
+    private final int[] size;
+    private int count;
+
+    // create N sites, each in its own component
+    public PathHalvingUF(int N) {
+        if (N < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.parent = new int[N];
+        this.size = new int[N];
+        for (int i = 0; i < N; i++) {
+            this.parent[i] = i;
+            this.size[i] = 1;
+        }
+        this.count = N;
+    }
+
+    @Override
+    public int size() {
+        return this.parent.length;
+    }
+
+    @Override
+    public int count() {
+        return this.count;
+    }
+
+    @Override
+    public int find(int p) {
+        while (this.parent[p] != p) {
+            this.parent[p] = this.parent[this.parent[p]];
+            p = this.parent[p];
+        }
+        return p;
+    }
+
+    @Override
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    @Override
+    public int union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return rootP;
+        }
+
+        this.count--;
+        if (this.size[rootP] < this.size[rootQ]) {
+            this.parent[rootP] = rootQ;
+            this.size[rootQ] += this.size[rootP];
+            return rootQ;
+        } else {
+            this.parent[rootQ] = rootP;
+            this.size[rootP] += this.size[rootQ];
+            return rootP;
+        }
+    }
+}
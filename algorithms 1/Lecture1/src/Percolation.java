@@ -1,111 +1,416 @@
+import java.util.Arrays;
+
 public class Percolation {
 
-    private static final int VIRTUAL_NODE_COUNT = 2;
     private static final int LOWER_INDEX_BOUND = 1;
     private static final int MINIMUM_GRID_SIZE = 1;
 
-    private final WeightedQuickUnionUF weightedQuickUnionUFPercolation;
-    private final WeightedQuickUnionUF weightedQuickUnionUFFull;
+    // site state bits. OPEN is kept on every site, TOP and BOTTOM are only
+    // meaningful on the root of a component and record whether any site of
+    // that component lies in the first or last row of the grid.
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+    private static final byte SPANNING = TOP | BOTTOM;
+
+    // marks the sites opened by the openAll call in progress
+    private static final byte BATCH = 8;
+
+    private final UnionFind unionFind;
     private final int N;
-    private final boolean[] openGrid;
+    private final byte[] state;
+    private boolean percolates;
+
+    // only maintained while a listener is set: members links the open sites
+    // of each component into a circular list, and the event arrays hold the
+    // distinct neighbour roots seen by the open being processed
+    private PercolationListener listener;
+    private int[] members;
+    private final int[] eventRoots = new int[4];
+    private final boolean[] eventFills = new boolean[4];
+
+    // only kept on a RollbackUF backend: a journal of (site, old state)
+    // pairs, each open starting with a marker pair holding the union-find
+    // checkpoint, negated and offset by one, and the old percolates flag
+    private final RollbackUF rollbackUF;
+    private int[] journal;
+    private int journalSize;
+    private int opens;
 
     // create N-by-N grid, with all sites blocked
     public Percolation(int N) {
+        this(N, new PackedUF(validateGridSize(N) * N));
+    }
+
+    // create N-by-N grid, with all sites blocked, on a union-find backend
+    // of N * N sites that no other grid uses
+    public Percolation(int N, UnionFind unionFind) {
+        validateGridSize(N);
+        if (unionFind.size() != N * N || unionFind.count() != N * N) {
+            throw new IllegalArgumentException();
+        }
+
+        this.N = N;
+        this.state = new byte[N * N];
+        this.unionFind = unionFind;
+        this.percolates = false;
+
+        if (unionFind instanceof RollbackUF) {
+            this.rollbackUF = (RollbackUF) unionFind;
+            this.journal = new int[16];
+        } else {
+            this.rollbackUF = null;
+        }
+        this.journalSize = 0;
+        this.opens = 0;
+    }
+
+    private static int validateGridSize(int N) {
         if (N < MINIMUM_GRID_SIZE) {
             throw new IndexOutOfBoundsException();
         }
+        return N;
+    }
+
+    // open site (row i, column j) if it is not already
+    public void open(int i, int j) {
+        validateGridArguments(i, j);
+
+        openIndex(computeGridIndex(i, j));
+    }
+
+    // open the site at row-major index (i - 1) * N + (j - 1) if it is not
+    // already; the index is not bounds checked
+    void openIndex(int index) {
+        if (isOpenIndex(index)) {
+            return;
+        }
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.open();
+        }
+
+        int row = index / N;
+        int column = index - (row * N);
+
+        if (this.rollbackUF != null) {
+            record(-1 - this.rollbackUF.checkpoint(), this.percolates ? 1 : 0);
+            record(index, this.state[index]);
+            this.opens++;
+        }
+
+        byte status = openState(row);
+        this.state[index] = status;
+
+        // join the cell to its open neighbours, collecting their root state;
+        // with a listener the distinct neighbour roots are found first, so
+        // they are joined directly
+        int events = 0;
+        if (this.listener != null) {
+            events = collectEventRoots(index, row, column);
+            for (int k = 0; k < events; k++) {
+                status |= this.state[this.eventRoots[k]];
+                this.unionFind.union(index, this.eventRoots[k]);
+            }
+        } else {
+            if (row > 0) {
+                status |= joinIfOpen(index, index - N);
+            }
+            if (row < N - 1) {
+                status |= joinIfOpen(index, index + N);
+            }
+            if (column > 0) {
+                status |= joinIfOpen(index, index - 1);
+            }
+            if (column < N - 1) {
+                status |= joinIfOpen(index, index + 1);
+            }
+        }
+
+        int root = this.unionFind.find(index);
+        if (this.rollbackUF != null) {
+            record(root, this.state[root]);
+        }
+        this.state[root] |= status;
+
+        if ((status & SPANNING) == SPANNING) {
+            this.percolates = true;
+        }
+
+        if (this.listener != null) {
+            fireEvents(index, row, column, status, events);
+        }
+    }
 
-        int size = (N * N) + VIRTUAL_NODE_COUNT;
-        this.openGrid = new boolean[size];
+    private void record(int first, int second) {
+        if (this.journalSize + 2 > this.journal.length) {
+            int[] grown = new int[this.journal.length * 2];
+            System.arraycopy(this.journal, 0, grown, 0, this.journalSize);
+            this.journal = grown;
+        }
+        this.journal[this.journalSize++] = first;
+        this.journal[this.journalSize++] = second;
+    }
 
-        for (int i = 0; i < size; i++) {
-            if (i == 0 || i == size - 1) {
-                this.openGrid[i] = true;
+    // number of opens so far, to be passed to rollback; only available on
+    // a RollbackUF backend
+    public int checkpoint() {
+        validateRollback();
+        return this.opens;
+    }
+
+    // undo every open made since checkpoint() returned the given value
+    public void rollback(int checkpoint) {
+        validateRollback();
+        if (checkpoint < 0 || checkpoint > this.opens) {
+            throw new IllegalArgumentException();
+        }
+
+        while (this.opens > checkpoint) {
+            int second = this.journal[--this.journalSize];
+            int first = this.journal[--this.journalSize];
+            if (first >= 0) {
+                this.state[first] = (byte) second;
             } else {
-                this.openGrid[i] = false;
+                this.rollbackUF.rollback(-1 - first);
+                this.percolates = second != 0;
+                this.opens--;
             }
         }
+    }
 
-        this.N = N;
-        this.weightedQuickUnionUFPercolation = new WeightedQuickUnionUF((N * N)
-                + VIRTUAL_NODE_COUNT);
-        this.weightedQuickUnionUFFull = new WeightedQuickUnionUF((N * N)
-                + VIRTUAL_NODE_COUNT - 1);
+    private void validateRollback() {
+        if (this.rollbackUF == null) {
+            throw new UnsupportedOperationException();
+        }
+        if (this.listener != null) {
+            throw new IllegalStateException();
+        }
     }
 
-    // open site (row i, column j) if it is not already
-    public void open(int i, int j) {
-        validateGridArguments(i, j);
+    // state of a newly opened, not yet joined site in the given row
+    private byte openState(int row) {
+        byte status = OPEN;
+        if (row == 0) {
+            status |= TOP;
+        }
+        if (row == N - 1) {
+            status |= BOTTOM;
+        }
+        return status;
+    }
 
-        int index = computeGridIndex(i, j);
-        if (!this.openGrid[index]) {
-            this.openGrid[index] = true;
-
-            // check if the cell can be joined to neighbours
-            int northIndex = getNorthIndex(index);
-            if (this.openGrid[northIndex]) {
-                this.weightedQuickUnionUFPercolation.union(index, northIndex);
-                this.weightedQuickUnionUFFull.union(index, northIndex);
-            }
-
-            // Need to differentiate between perculate and full unions here
-            int southIndex = getSouthIndex(index);
-            if (this.openGrid[southIndex]) {
-                this.weightedQuickUnionUFPercolation.union(index, southIndex);
-                if (southIndex != (N * N) + VIRTUAL_NODE_COUNT - 1) {
-                    this.weightedQuickUnionUFFull.union(index, southIndex);
-                }
+    // open sites (rows[k], cols[k]) for every k; the result is the same as
+    // opening them one at a time
+    public void openAll(int[] rows, int[] cols) {
+        if (rows.length != cols.length) {
+            throw new IllegalArgumentException();
+        }
+
+        int[] indices = new int[rows.length];
+        for (int k = 0; k < rows.length; k++) {
+            validateGridArguments(rows[k], cols[k]);
+            indices[k] = computeGridIndex(rows[k], cols[k]);
+        }
+
+        openBatch(indices);
+    }
+
+    // open the sites at the given row-major indices (i - 1) * N + (j - 1);
+    // the result is the same as opening them one at a time
+    public void openAll(int[] indices) {
+        for (int k = 0; k < indices.length; k++) {
+            if (indices[k] < 0 || indices[k] >= this.state.length) {
+                throw new IndexOutOfBoundsException();
             }
+        }
 
-            if (j > 1) {
-                int westIndex = getWestIndex(index);
-                if (this.openGrid[westIndex]) {
-                    this.weightedQuickUnionUFPercolation
-                            .union(index, westIndex);
-                    this.weightedQuickUnionUFFull.union(index, westIndex);
-                }
+        openBatch(indices.clone());
+    }
+
+    // open validated indices, which may be reordered; all sites are marked
+    // open first and then joined in one pass in grid order
+    private void openBatch(int[] indices) {
+        if (this.listener != null || this.rollbackUF != null) {
+            for (int k = 0; k < indices.length; k++) {
+                openIndex(indices[k]);
             }
+            return;
+        }
 
-            if (j < N) {
-                int eastIndex = getEastIndex(index);
-                if (this.openGrid[eastIndex]) {
-                    this.weightedQuickUnionUFPercolation
-                            .union(index, eastIndex);
-                    this.weightedQuickUnionUFFull.union(index, eastIndex);
-                }
+        Arrays.sort(indices);
+
+        // mark the sites that are not already open, compacting them to the
+        // front of indices
+        int opened = 0;
+        for (int k = 0; k < indices.length; k++) {
+            int index = indices[k];
+            if (!isOpenIndex(index)) {
+                this.state[index] = (byte) (openState(index / N) | BATCH);
+                indices[opened++] = index;
+            }
+        }
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.open(opened);
+        }
+
+        // join each new site to its west and north neighbours, and to east
+        // and south neighbours that were open before this batch; pairs of
+        // new sites are joined once, from the later site of the pair
+        for (int k = 0; k < opened; k++) {
+            int index = indices[k];
+            int row = index / N;
+            int column = index - (row * N);
+
+            if (row > 0) {
+                joinBatch(index, index - N, false);
+            }
+            if (row < N - 1) {
+                joinBatch(index, index + N, true);
+            }
+            if (column > 0) {
+                joinBatch(index, index - 1, false);
+            }
+            if (column < N - 1) {
+                joinBatch(index, index + 1, true);
+            }
+        }
+
+        for (int k = 0; k < opened; k++) {
+            int index = indices[k];
+            this.state[index] &= ~BATCH;
+            byte root = this.state[this.unionFind.find(index)];
+            if ((root & SPANNING) == SPANNING) {
+                this.percolates = true;
             }
         }
     }
 
-    private int getEastIndex(int index) {
-        if (index % N == 0) {
-            throw new IllegalArgumentException();
+    private void joinBatch(int index, int neighbour, boolean onlyIfOld) {
+        byte neighbourState = this.state[neighbour];
+        if ((neighbourState & OPEN) == 0
+                || (onlyIfOld && (neighbourState & BATCH) != 0)) {
+            return;
+        }
+
+        int indexRoot = this.unionFind.find(index);
+        int neighbourRoot = this.unionFind.find(neighbour);
+        if (indexRoot != neighbourRoot) {
+            byte merged = (byte) ((this.state[indexRoot]
+                    | this.state[neighbourRoot]) & SPANNING);
+            int root = this.unionFind.union(indexRoot, neighbourRoot);
+            this.state[root] |= merged;
         }
-        return index + 1;
     }
 
-    private int getWestIndex(int index) {
-        if (index == 1) {
-            throw new IllegalArgumentException();
+    // record the distinct roots of the open neighbours, and whether each of
+    // them is not yet full, before they are joined to index
+    private int collectEventRoots(int index, int row, int column) {
+        int distinct = 0;
+        if (row > 0) {
+            distinct = collectEventRoot(index - N, distinct);
         }
-        return index - 1;
+        if (row < N - 1) {
+            distinct = collectEventRoot(index + N, distinct);
+        }
+        if (column > 0) {
+            distinct = collectEventRoot(index - 1, distinct);
+        }
+        if (column < N - 1) {
+            distinct = collectEventRoot(index + 1, distinct);
+        }
+        return distinct;
     }
 
-    private int getSouthIndex(int index) {
-        if (((N * N) - N) < index) {
-            return ((N * N) + VIRTUAL_NODE_COUNT - 1);
-        } else {
-            return index + N;
+    private int collectEventRoot(int neighbour, int distinct) {
+        if (!isOpenIndex(neighbour)) {
+            return distinct;
+        }
+
+        int root = this.unionFind.find(neighbour);
+        for (int k = 0; k < distinct; k++) {
+            if (this.eventRoots[k] == root) {
+                return distinct;
+            }
+        }
+        this.eventRoots[distinct] = root;
+        this.eventFills[distinct] = (this.state[root] & TOP) == 0;
+        return distinct + 1;
+    }
+
+    // report the opened site and, if the merged component is full, every
+    // site of the components that were not full before; then splice the
+    // member lists of the merged components together
+    private void fireEvents(int index, int row, int column, byte status,
+            int events) {
+        this.listener.opened(row + 1, column + 1);
+
+        if ((status & TOP) != 0) {
+            this.listener.filled(row + 1, column + 1);
+            for (int k = 0; k < events; k++) {
+                if (this.eventFills[k]) {
+                    fireFilled(this.eventRoots[k]);
+                }
+            }
+        }
+
+        for (int k = 0; k < events; k++) {
+            int next = this.members[index];
+            this.members[index] = this.members[this.eventRoots[k]];
+            this.members[this.eventRoots[k]] = next;
         }
+    }
+
+    private void fireFilled(int first) {
+        int site = first;
+        do {
+            this.listener.filled((site / N) + 1, (site % N) + 1);
+            site = this.members[site];
+        } while (site != first);
+    }
+
+    // report the sites changed by every subsequent open to listener, or
+    // stop reporting if listener is null; grids with a listener cannot be
+    // rolled back
+    public void setListener(PercolationListener listener) {
+        this.listener = listener;
+        if (listener == null) {
+            this.members = null;
+        } else if (this.members == null) {
+            this.members = new int[N * N];
+            for (int index = 0; index < this.members.length; index++) {
+                this.members[index] = index;
+            }
 
+            // splice each open site into its root's list
+            for (int index = 0; index < this.members.length; index++) {
+                int root = this.unionFind.find(index);
+                if (isOpenIndex(index) && root != index) {
+                    this.members[index] = this.members[root];
+                    this.members[root] = index;
+                }
+            }
+        }
     }
 
-    private int getNorthIndex(int index) {
-        if (index <= N) {
+    // union index with neighbour if the neighbour is open, returning the
+    // state of the neighbour's root before the union
+    private byte joinIfOpen(int index, int neighbour) {
+        if (!isOpenIndex(neighbour)) {
             return 0;
-        } else {
-            return index - N;
         }
+
+        byte status = this.state[this.unionFind.find(neighbour)];
+        this.unionFind.union(index, neighbour);
+        return status;
+    }
+
+    boolean isOpenIndex(int index) {
+        return (this.state[index] & OPEN) != 0;
+    }
+
+    // root of the component containing the site at the given index
+    int root(int index) {
+        return this.unionFind.find(index);
     }
 
     private void validateGridArguments(int i, int j) {
@@ -115,25 +420,26 @@ public class Percolation {
     }
 
     private int computeGridIndex(int i, int j) {
-        return ((i - 1) * N) + j;
+        return ((i - 1) * N) + (j - 1);
     }
 
     // is site (row i, column j) open?
     public boolean isOpen(int i, int j) {
         validateGridArguments(i, j);
-        return this.openGrid[computeGridIndex(i, j)];
+        return isOpenIndex(computeGridIndex(i, j));
     }
 
     // is site (row i, column j) full?
     public boolean isFull(int i, int j) {
         validateGridArguments(i, j);
 
-        return weightedQuickUnionUFFull.connected(computeGridIndex(i, j), 0);
+        int index = computeGridIndex(i, j);
+        return isOpenIndex(index)
+                && (this.state[this.unionFind.find(index)] & TOP) != 0;
     }
 
     // does the system percolate?
     public boolean percolates() {
-        return weightedQuickUnionUFPercolation.connected(0,
-                ((N * N) + VIRTUAL_NODE_COUNT) - 1);
+        return this.percolates;
     }
 }
@@ -0,0 +1,10 @@
+// receives the sites whose state changes when a site of a Percolation
+// system is opened
+public interface PercolationListener {
+
+    // site (row i, column j) has been opened
+    void opened(int i, int j);
+
+    // site (row i, column j) has become full
+    void filled(int i, int j);
+}
@@ -0,0 +1,180 @@
+/****************************************************************************
+ *  Compilation:  javac PercolationMetrics.java
+ *  Execution:    java -Dpercolation.metrics=true PercolationStats <N> <T>
+ *  Dependencies: PercolationMetricsMBean.java
+ *
+ *  Opt-in counters for the percolation hot paths: sites opened, unions,
+ *  finds and the parent links they follow, and the wall time and number
+ *  of opens of every PercolationStats trial.
+ *
+ *  Counting is switched on by the system property percolation.metrics.
+ *  ENABLED is a static final constant, so when it is false the JIT folds
+ *  every guarded call site away and the instrumented code runs as if the
+ *  counters did not exist. When it is true the counters are published as
+ *  the MBean PercolationMetrics:type=Percolation and, every
+ *  percolation.metrics.interval seconds (10 by default), printed as one
+ *  line on standard error.
+ *
+ ****************************************************************************/
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public final class PercolationMetrics implements PercolationMetricsMBean {
+
+    // guard every call into this class with this flag
+    static final boolean ENABLED = Boolean.getBoolean("percolation.metrics");
+
+    private static final String OBJECT_NAME =
+            "PercolationMetrics:type=Percolation";
+    private static final long DEFAULT_INTERVAL_SECONDS = 10;
+
+    private static final LongAdder OPENS = new LongAdder();
+    private static final LongAdder UNIONS = new LongAdder();
+    private static final LongAdder FINDS = new LongAdder();
+    private static final LongAdder PATH_LENGTH = new LongAdder();
+    private static final LongAdder TRIALS = new LongAdder();
+    private static final LongAdder TRIAL_OPENS = new LongAdder();
+    private static final LongAdder TRIAL_NANOS = new LongAdder();
+
+    static {
+        if (ENABLED) {
+            PercolationMetrics metrics = new PercolationMetrics();
+            register(metrics);
+            schedule(metrics, Long.getLong("percolation.metrics.interval",
+                    DEFAULT_INTERVAL_SECONDS));
+        }
+    }
+
+    private PercolationMetrics() {
+    }
+
+    private static void register(PercolationMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics,
+                    new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // print the counters periodically from a daemon thread
+    private static void schedule(final PercolationMetrics metrics,
+            long seconds) {
+        if (seconds <= 0) {
+            return;
+        }
+
+        ScheduledExecutorService timer = Executors
+                .newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable,
+                                "percolation-metrics");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        timer.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                System.err.println(metrics);
+            }
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    // a site was opened
+    static void open() {
+        OPENS.increment();
+    }
+
+    // count sites opened
+    static void open(int count) {
+        OPENS.add(count);
+    }
+
+    // two components were merged
+    static void union() {
+        UNIONS.increment();
+    }
+
+    // a find followed pathLength parent links
+    static void find(int pathLength) {
+        FINDS.increment();
+        PATH_LENGTH.add(pathLength);
+    }
+
+    // a PercolationStats trial opened the given number of sites in nanos
+    static void trial(int opens, long nanos) {
+        TRIALS.increment();
+        TRIAL_OPENS.add(opens);
+        TRIAL_NANOS.add(nanos);
+    }
+
+    @Override
+    public long getOpens() {
+        return OPENS.sum();
+    }
+
+    @Override
+    public long getUnions() {
+        return UNIONS.sum();
+    }
+
+    @Override
+    public long getFinds() {
+        return FINDS.sum();
+    }
+
+    @Override
+    public long getPathLength() {
+        return PATH_LENGTH.sum();
+    }
+
+    @Override
+    public double getAveragePathLength() {
+        long finds = FINDS.sum();
+        return finds == 0 ? 0.0 : PATH_LENGTH.sum() / (double) finds;
+    }
+
+    @Override
+    public long getTrials() {
+        return TRIALS.sum();
+    }
+
+    @Override
+    public double getTrialMillis() {
+        return TRIAL_NANOS.sum() / 1e6;
+    }
+
+    @Override
+    public double getOpensPerSecond() {
+        long nanos = TRIAL_NANOS.sum();
+        return nanos == 0 ? 0.0 : TRIAL_OPENS.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public void reset() {
+        OPENS.reset();
+        UNIONS.reset();
+        FINDS.reset();
+        PATH_LENGTH.reset();
+        TRIALS.reset();
+        TRIAL_OPENS.reset();
+        TRIAL_NANOS.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("percolation: opens=%d unions=%d finds=%d "
+                + "path/find=%.3f trials=%d trial-ms=%.1f opens/s=%.0f",
+                getOpens(), getUnions(), getFinds(), getAveragePathLength(),
+                getTrials(), getTrialMillis(), getOpensPerSecond());
+    }
+}
@@ -0,0 +1,31 @@
+// management interface of PercolationMetrics, registered with the platform
+// MBean server as PercolationMetrics:type=Percolation
+public interface PercolationMetricsMBean {
+
+    // sites opened
+    long getOpens();
+
+    // union calls on the default union-find backend
+    long getUnions();
+
+    // find calls on the default union-find backend
+    long getFinds();
+
+    // parent links followed by those finds
+    long getPathLength();
+
+    // mean parent links followed per find
+    double getAveragePathLength();
+
+    // PercolationStats trials completed
+    long getTrials();
+
+    // total wall time of those trials, in milliseconds
+    double getTrialMillis();
+
+    // sites opened per second of trial wall time
+    double getOpensPerSecond();
+
+    // set every counter back to zero
+    void reset();
+}
@@ -0,0 +1,234 @@
+/****************************************************************************
+ *  Compilation:  javac PercolationRenderer.java
+ *  Execution:    java PercolationRenderer input.txt [<fps>]
+ *                java PercolationRenderer input.txt -headless <dir> <every>
+ *  Dependencies: Percolation.java PercolationListener.java
+ *                OpenSequenceReader.java
+ *
+ *  Incremental renderer for a percolation replay. The grid is drawn into an
+ *  int raster, and as a PercolationListener only the cells whose state
+ *  changed are repainted. That raster belongs to the simulation thread;
+ *  each frame copies the rows changed since the last one, under a lock,
+ *  into the BufferedImage that the event dispatch thread paints. On
+ *  screen, frames are skipped so that the window is refreshed at no more
+ *  than the target frame rate.
+ *  In headless mode no window is opened and a PNG snapshot is written
+ *  every <every> opens, plus one of the final state.
+ *
+ *  Colours match PercolationVisualizer: full sites light blue, open sites
+ *  white, blocked sites black, with site (1, 1) in the upper left corner.
+ *
+ ****************************************************************************/
+
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+public class PercolationRenderer implements PercolationListener {
+
+    // blocked cells keep the raster's initial black
+    private static final int OPEN_RGB = 0xffffff;
+    private static final int FULL_RGB = 0x67c6f3;
+
+    // largest image side used when choosing the cell size
+    private static final int TARGET_IMAGE_SIZE = 800;
+    private static final int DEFAULT_FPS = 30;
+
+    private final int N;
+    private final int cellSize;
+    private final int side;
+
+    // the raster the listener draws into, used by the simulation thread only
+    private final int[] pixels;
+
+    // pixel rows [dirtyTop, dirtyBottom) of pixels not yet in the image
+    private int dirtyTop;
+    private int dirtyBottom;
+
+    // the published frame, guarded by its own lock
+    private final BufferedImage image;
+    private final int[] imagePixels;
+
+    private final long frameNanos;
+    private JComponent canvas;
+    private long lastFrame;
+
+    // render an N-by-N system, refreshing a window at up to fps frames per
+    // second once show() has been called
+    public PercolationRenderer(int N, int fps) {
+        if (N <= 0 || fps <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.N = N;
+        this.cellSize = Math.max(1, TARGET_IMAGE_SIZE / N);
+        this.side = N * this.cellSize;
+        this.pixels = new int[this.side * this.side];
+        this.dirtyTop = this.side;
+        this.dirtyBottom = 0;
+        this.image = new BufferedImage(this.side, this.side,
+                BufferedImage.TYPE_INT_RGB);
+        this.imagePixels = ((DataBufferInt) this.image.getRaster()
+                .getDataBuffer()).getData();
+        this.frameNanos = 1000000000L / fps;
+        this.lastFrame = 0;
+    }
+
+    @Override
+    public void opened(int i, int j) {
+        fillCell(i, j, OPEN_RGB);
+    }
+
+    @Override
+    public void filled(int i, int j) {
+        fillCell(i, j, FULL_RGB);
+    }
+
+    // write one cell straight into the raster, leaving a one pixel border
+    // between cells when they are large enough to show it
+    private void fillCell(int i, int j, int rgb) {
+        int inner = this.cellSize > 2 ? this.cellSize - 1 : this.cellSize;
+        int top = (i - 1) * this.cellSize;
+        int left = (j - 1) * this.cellSize;
+        for (int y = top; y < top + inner; y++) {
+            int offset = y * this.side;
+            for (int x = left; x < left + inner; x++) {
+                this.pixels[offset + x] = rgb;
+            }
+        }
+
+        this.dirtyTop = Math.min(this.dirtyTop, top);
+        this.dirtyBottom = Math.max(this.dirtyBottom, top + inner);
+    }
+
+    // copy the rows changed since the last frame into the image
+    private void publish() {
+        if (this.dirtyTop >= this.dirtyBottom) {
+            return;
+        }
+
+        int from = this.dirtyTop * this.side;
+        int length = (this.dirtyBottom - this.dirtyTop) * this.side;
+        synchronized (this.image) {
+            System.arraycopy(this.pixels, from, this.imagePixels, from, length);
+        }
+        this.dirtyTop = this.side;
+        this.dirtyBottom = 0;
+    }
+
+    // open a window showing the image
+    public void show() {
+        final JComponent component = new JComponent() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void paintComponent(Graphics g) {
+                synchronized (image) {
+                    g.drawImage(image, 0, 0, null);
+                }
+            }
+        };
+        component.setPreferredSize(new Dimension(this.image.getWidth(),
+                this.image.getHeight()));
+        this.canvas = component;
+
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                JFrame frame = new JFrame("Percolation");
+                frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                frame.add(component);
+                frame.pack();
+                frame.setVisible(true);
+            }
+        });
+    }
+
+    // repaint the window unless the previous frame is too recent
+    public void frame() {
+        long now = System.nanoTime();
+        if (this.canvas != null && now - this.lastFrame >= this.frameNanos) {
+            this.lastFrame = now;
+            publish();
+            this.canvas.repaint();
+        }
+    }
+
+    // repaint the window regardless of the frame rate
+    public void flush() {
+        if (this.canvas != null) {
+            this.lastFrame = System.nanoTime();
+            publish();
+            this.canvas.repaint();
+        }
+    }
+
+    // write the current image as a PNG file
+    public void snapshot(File file) throws IOException {
+        publish();
+        synchronized (this.image) {
+            ImageIO.write(this.image, "png", file);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean headless = args.length == 4 && args[1].equals("-headless");
+        long every = headless ? Long.parseLong(args[3]) : 0;
+        if (args.length < 1 || (args.length > 2 && !headless)
+                || (headless && every <= 0)) {
+            StdOut.println("Invalid arguments: command line is "
+                    + "PercolationRenderer input.txt [<fps>] or "
+                    + "PercolationRenderer input.txt -headless <dir> <every>");
+            return;
+        }
+        if (headless) {
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        OpenSequenceReader in = new OpenSequenceReader(args[0]); // input file
+        int N = in.gridSize(); // N-by-N percolation system
+
+        int fps = args.length == 2 ? Integer.parseInt(args[1]) : DEFAULT_FPS;
+        PercolationRenderer renderer = new PercolationRenderer(N, fps);
+        Percolation perc = new Percolation(N);
+        perc.setListener(renderer);
+
+        File directory = null;
+        if (headless) {
+            directory = new File(args[2]);
+            directory.mkdirs();
+        } else {
+            renderer.show();
+        }
+
+        long opens = 0;
+        while (in.next()) {
+            perc.open(in.row(), in.column());
+            opens++;
+
+            if (!headless) {
+                renderer.frame();
+            } else if (opens % every == 0) {
+                renderer.snapshot(new File(directory, String.format(
+                        "percolation-%012d.png", opens)));
+            }
+        }
+
+        if (headless) {
+            renderer.snapshot(new File(directory, "percolation-final.png"));
+            StdOut.println(opens + " opens, " + (perc.percolates()
+                    ? "percolates" : "does not percolate"));
+        } else {
+            renderer.flush();
+        }
+        in.close();
+    }
+}
@@ -1,36 +1,299 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 public class PercolationStats {
 
+    // number of tasks each trial batch is split into per available core, so
+    // that uneven trial lengths still balance across the pool
+    private static final int TASKS_PER_CORE = 4;
+
+    // minimum number of trials before the adaptive mode may stop, so that
+    // the normal approximation behind the interval is reasonable
+    private static final int MINIMUM_ADAPTIVE_TRIALS = 30;
+
+    // increment of the splitmix64 sequence used to derive per-trial seeds
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
     private final double[] results;
     private final int T;
 
     // perform T independent computational experiments on an N-by-N grid
     public PercolationStats(int N, int T) {
+        this(N, T, randomSeed(), 1);
+    }
+
+    // perform T experiments on parallelism threads; trial t is seeded from
+    // (seed, t) alone, so results do not depend on the thread count
+    public PercolationStats(int N, int T, long seed, int parallelism) {
+        this(N, T, seed, parallelism, null);
+    }
+
+    // perform T experiments as above, taking the trials already in the log
+    // from it and appending every other trial to it as it finishes, so that
+    // an interrupted run resumes where it stopped
+    public PercolationStats(int N, int T, long seed, int parallelism,
+            TrialLog log) {
+        validateArguments(N, T);
+        validateParallelism(parallelism);
+        if (log != null && (log.gridSize() != N || log.seed() != seed)) {
+            throw new IllegalArgumentException();
+        }
+
         this.T = T;
+        this.results = new double[T];
+
+        ForkJoinPool pool = createPool(parallelism);
+        try {
+            runTrials(N, seed, this.results, 0, T, pool, parallelism, log);
+        } finally {
+            shutdown(pool);
+        }
+    }
+
+    // perform T experiments on the given executor, which is left running
+    public PercolationStats(int N, int T, long seed, ExecutorService executor) {
+        validateArguments(N, T);
+        if (executor == null) {
+            throw new NullPointerException();
+        }
+
+        this.T = T;
+        this.results = new double[T];
+
+        runTrials(N, seed, this.results, 0, T, executor, Runtime.getRuntime()
+                .availableProcessors(), null);
+    }
+
+    private PercolationStats(double[] results) {
+        this.T = results.length;
+        this.results = results;
+    }
+
+    // statistics of the trials recorded in a log, without running any; the
+    // log is only read, so it may still be in use by a running job
+    public static PercolationStats fromLog(String fileName) throws IOException {
+        double[] results = TrialLog.load(fileName).completedResults();
+        if (results.length == 0) {
+            throw new IllegalArgumentException();
+        }
+        return new PercolationStats(results);
+    }
+
+    // run trials until the 95% confidence interval is no wider than
+    // halfWidth either side of the mean, or until maxTrials have run
+    public static PercolationStats adaptive(int N, double halfWidth,
+            int maxTrials, long seed, int parallelism) {
+        validateArguments(N, maxTrials);
+        validateParallelism(parallelism);
+        if (!(halfWidth > 0.0)) {
+            throw new IllegalArgumentException();
+        }
+
+        // trials are checked in index order, so the stopping point does not
+        // depend on the thread count; a parallel batch may overshoot it
+        double[] results = new double[maxTrials];
+        int batch = parallelism == 1 ? 1 : parallelism * TASKS_PER_CORE;
+        int completed = 0;
+        double mean = 0.0;
+        double squares = 0.0;
+
+        ForkJoinPool pool = createPool(parallelism);
+        try {
+            while (completed < maxTrials) {
+                int to = Math.min(maxTrials, completed + batch);
+                runTrials(N, seed, results, completed, to, pool, parallelism,
+                        null);
+
+                while (completed < to) {
+                    double result = results[completed];
+                    completed++;
 
+                    // Welford's online update of mean and squared deviations
+                    double delta = result - mean;
+                    mean += delta / completed;
+                    squares += delta * (result - mean);
+
+                    if (completed >= MINIMUM_ADAPTIVE_TRIALS
+                            && 1.96 * Math.sqrt(squares / (completed - 1))
+                                    / Math.sqrt(completed) <= halfWidth) {
+                        return new PercolationStats(Arrays.copyOf(results,
+                                completed));
+                    }
+                }
+            }
+        } finally {
+            shutdown(pool);
+        }
+
+        return new PercolationStats(results);
+    }
+
+    private static void validateArguments(int N, int T) {
         if (N <= 0 || T <= 0) {
             throw new IllegalArgumentException();
         }
+    }
+
+    private static void validateParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    // draw a master seed from StdRandom, so that StdRandom.setSeed() still
+    // makes the default constructor reproducible
+    static long randomSeed() {
+        return ((long) StdRandom.uniform(Integer.MAX_VALUE) << 32)
+                ^ StdRandom.uniform(Integer.MAX_VALUE);
+    }
 
-        results = new double[T];
-        double arraySize = N * N;
+    // a pool for parallelism threads, or null to run on the caller's thread
+    private static ForkJoinPool createPool(int parallelism) {
+        return parallelism == 1 ? null : new ForkJoinPool(parallelism);
+    }
 
-        for (int i = 0; i < T; i++) {
-            Percolation percolation = new Percolation(N);
+    private static void shutdown(ExecutorService executor) {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
 
-            int k = -1;
-            int j = -1;
-            int count = 0;
-            do {
-                k = StdRandom.uniform(N) + 1;
-                j = StdRandom.uniform(N) + 1;
-                if (!percolation.isOpen(k, j)) {
-                    percolation.open(k, j);
-                    count++;
+    // run trials [from, to) into results, split into tasks on the executor
+    // or inline when there is none
+    private static void runTrials(final int N, final long seed,
+            final double[] results, int from, int to,
+            ExecutorService executor, int parallelism, final TrialLog log) {
+        if (executor == null) {
+            runTrials(N, seed, results, from, to, log);
+            return;
+        }
+
+        int trials = to - from;
+        int tasks = Math.min(trials, parallelism * TASKS_PER_CORE);
+        List<Future<?>> futures = new ArrayList<Future<?>>(tasks);
+
+        for (int task = 0; task < tasks; task++) {
+            final int taskFrom = from + (int) ((long) trials * task / tasks);
+            final int taskTo = from
+                    + (int) ((long) trials * (task + 1) / tasks);
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    runTrials(N, seed, results, taskFrom, taskTo, log);
                 }
-            } while (!percolation.percolates());
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            awaitTrials(future);
+        }
+    }
+
+    private static void awaitTrials(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // run trials [from, to), each on its own generator, skipping those
+    // already in the log and logging the rest
+    private static void runTrials(int N, long seed, double[] results,
+            int from, int to, TrialLog log) {
+        for (int i = from; i < to; i++) {
+            if (log != null && log.isComplete(i)) {
+                results[i] = log.result(i);
+                continue;
+            }
+
+            long trialSeed = trialSeed(seed, i);
+            int opened;
+            if (PercolationMetrics.ENABLED) {
+                long start = System.nanoTime();
+                opened = runTrial(N, new SplittableRandom(trialSeed));
+                PercolationMetrics.trial(opened, System.nanoTime() - start);
+            } else {
+                opened = runTrial(N, new SplittableRandom(trialSeed));
+            }
+            results[i] = opened / ((double) N * N);
+            if (log != null) {
+                log.append(i, trialSeed, results[i]);
+            }
+        }
+    }
 
-            results[i] = count / arraySize;
+    // splitmix64 finaliser applied to the trial's position in the sequence
+    static long trialSeed(long seed, int trial) {
+        long z = seed + ((trial + 1) * GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // open sites in the order of an incremental Fisher-Yates shuffle until
+    // the system percolates, returning the number of sites opened
+    private static int runTrial(int N, SplittableRandom random) {
+        Percolation percolation = new Percolation(N);
+        int[] sites = new int[N * N];
+        for (int i = 0; i < sites.length; i++) {
+            sites[i] = i;
         }
+
+        int count = 0;
+        do {
+            int pick = count + random.nextInt(sites.length - count);
+            int site = sites[pick];
+            sites[pick] = sites[count];
+            sites[count] = site;
+
+            percolation.openIndex(site);
+            count++;
+        } while (!percolation.percolates());
+
+        return count;
+    }
+
+    // fraction of T trials on an N-by-N grid that percolate when each site
+    // is open with probability p, run 64 trials at a time bit-sliced
+    public static double percolationProbability(int N, double p, int T,
+            long seed) {
+        validateArguments(N, T);
+
+        BitSlicedPercolation percolation = new BitSlicedPercolation(N);
+        int words = (T + BitSlicedPercolation.TRIALS_PER_WORD - 1)
+                / BitSlicedPercolation.TRIALS_PER_WORD;
+        long percolating = 0;
+        for (int word = 0; word < words; word++) {
+            long mask = percolation.sample(p, new SplittableRandom(trialSeed(
+                    seed, word)));
+            int trials = Math.min(BitSlicedPercolation.TRIALS_PER_WORD, T
+                    - (word * BitSlicedPercolation.TRIALS_PER_WORD));
+            if (trials < BitSlicedPercolation.TRIALS_PER_WORD) {
+                mask &= (1L << trials) - 1;
+            }
+            percolating += Long.bitCount(mask);
+        }
+
+        return percolating / (double) T;
+    }
+
+    // number of trials the statistics are computed from
+    public int trials() {
+        return T;
     }
 
     // sample mean of percolation threshold
@@ -45,34 +308,52 @@ public class PercolationStats {
 
     // returns lower bound of the 95% confidence interval
     public double confidenceLo() {
-        if (T < 30) {
-            return mean() - ((1.96 * Math.sqrt(this.stddev())) / T);
-        } else {
-            return mean()
-                    - ((1.96 * Math.sqrt(this.stddev())) / (Math.sqrt(T)));
-        }
+        return mean() - ((1.96 * stddev()) / Math.sqrt(T));
     }
 
     // returns upper bound of the 95% confidence interval
     public double confidenceHi() {
-        if (T < 30) {
-            return mean() + ((1.96 * Math.sqrt(this.stddev())) / T);
-        } else {
-            return mean()
-                    + ((1.96 * Math.sqrt(this.stddev())) / (Math.sqrt(T)));
-        }
+        return mean() + ((1.96 * stddev()) / Math.sqrt(T));
     }
 
     // test client, described below
-    public static void main(String[] args) {
-        if (args.length != 2) {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 5) {
             StdOut.println("Invalid arguments: "
-                    + "command line is PercolationStats <N> <T>");
+                    + "command line is PercolationStats <N> <T> "
+                    + "[<seed> <threads> [<log>]] "
+                    + "or PercolationStats <N> <T> <p>");
             return;
         }
 
-        PercolationStats percolationStats = new PercolationStats(
-                Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        if (args.length == 3) {
+            StdOut.println("P(percolates)\t\t\t"
+                    + percolationProbability(Integer.parseInt(args[0]),
+                            Double.parseDouble(args[2]),
+                            Integer.parseInt(args[1]), randomSeed()));
+            return;
+        }
+
+        PercolationStats percolationStats;
+        if (args.length == 2) {
+            percolationStats = new PercolationStats(Integer.parseInt(args[0]),
+                    Integer.parseInt(args[1]));
+        } else if (args.length == 4) {
+            percolationStats = new PercolationStats(Integer.parseInt(args[0]),
+                    Integer.parseInt(args[1]), Long.parseLong(args[2]),
+                    Integer.parseInt(args[3]));
+        } else {
+            int N = Integer.parseInt(args[0]);
+            long seed = Long.parseLong(args[2]);
+            TrialLog log = new TrialLog(args[4], N, seed);
+            try {
+                percolationStats = new PercolationStats(N,
+                        Integer.parseInt(args[1]), seed,
+                        Integer.parseInt(args[3]), log);
+            } finally {
+                log.close();
+            }
+        }
 
         StdOut.println("mean\t\t\t\t" + percolationStats.mean());
         StdOut.println("stddev\t\t\t\t" + percolationStats.stddev());
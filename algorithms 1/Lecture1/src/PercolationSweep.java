@@ -0,0 +1,229 @@
+/****************************************************************************
+ *  Compilation:  javac PercolationSweep.java
+ *  Execution:    java PercolationSweep <N> <T> <bins> [<seed>]
+ *  Dependencies: Percolation.java PercolationStats.java StdOut.java
+ *
+ *  Newman-Ziff sweep over the whole occupation range. Each trial opens all
+ *  N-by-N sites once in random order and records, after every open, whether
+ *  the system percolates and the size of its largest cluster. Averaged over
+ *  the T trials these give the observables at every fixed number n of open
+ *  sites. A grid whose sites are each open with probability p has n open
+ *  sites with probability Binomial(N^2, p), so each bin's P(percolates | p)
+ *  and mean largest cluster fraction are the fixed-n values weighted by
+ *  those probabilities. One pass per trial serves every bin.
+ *
+ ****************************************************************************/
+
+import java.util.SplittableRandom;
+
+public class PercolationSweep {
+
+    // binomial weights below this fraction of the largest are dropped
+    private static final double NEGLIGIBLE_WEIGHT = 1e-15;
+
+    private final int N;
+    private final double[] percolationProbability;
+    private final double[] largestCluster;
+
+    // sweep T trials of an N-by-N grid into the given number of p bins
+    public PercolationSweep(int N, int T, int bins) {
+        this(N, T, bins, PercolationStats.randomSeed());
+    }
+
+    // sweep T trials with trial t seeded from (seed, t) alone
+    public PercolationSweep(int N, int T, int bins, long seed) {
+        if (N <= 0 || T <= 0 || bins <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.N = N;
+        this.percolationProbability = new double[bins];
+        this.largestCluster = new double[bins];
+
+        // sums over the trials of each observable after n opens
+        int sites = N * N;
+        double[] percolating = new double[sites + 1];
+        double[] largest = new double[sites + 1];
+        for (int i = 0; i < T; i++) {
+            runTrial(new SplittableRandom(PercolationStats.trialSeed(seed, i)),
+                    percolating, largest);
+        }
+
+        for (int n = 0; n <= sites; n++) {
+            percolating[n] /= T;
+            largest[n] /= ((double) T * sites);
+        }
+        for (int bin = 0; bin < bins; bin++) {
+            this.percolationProbability[bin] = convolve(percolating, p(bin));
+            this.largestCluster[bin] = convolve(largest, p(bin));
+        }
+    }
+
+    private void runTrial(SplittableRandom random, double[] percolating,
+            double[] largestSizes) {
+        Percolation percolation = new Percolation(N);
+        int[] sites = new int[N * N];
+        int[] clusterSize = new int[N * N];
+        for (int i = 0; i < sites.length; i++) {
+            sites[i] = i;
+        }
+
+        int largest = 0;
+        int[] roots = new int[4];
+
+        for (int count = 0; count < sites.length; count++) {
+            int pick = count + random.nextInt(sites.length - count);
+            int site = sites[pick];
+            sites[pick] = sites[count];
+            sites[count] = site;
+
+            // sum the sizes of the distinct clusters the new site joins
+            int row = site / N;
+            int column = site - (row * N);
+            int distinct = 0;
+            if (row > 0) {
+                distinct = addRoot(percolation, site - N, roots, distinct);
+            }
+            if (row < N - 1) {
+                distinct = addRoot(percolation, site + N, roots, distinct);
+            }
+            if (column > 0) {
+                distinct = addRoot(percolation, site - 1, roots, distinct);
+            }
+            if (column < N - 1) {
+                distinct = addRoot(percolation, site + 1, roots, distinct);
+            }
+
+            int size = 1;
+            for (int k = 0; k < distinct; k++) {
+                size += clusterSize[roots[k]];
+            }
+
+            percolation.openIndex(site);
+            clusterSize[percolation.root(site)] = size;
+            if (size > largest) {
+                largest = size;
+            }
+
+            if (percolation.percolates()) {
+                percolating[count + 1]++;
+            }
+            largestSizes[count + 1] += largest;
+        }
+    }
+
+    // add the root of an open neighbour to roots unless already present
+    private static int addRoot(Percolation percolation, int neighbour,
+            int[] roots, int distinct) {
+        if (!percolation.isOpenIndex(neighbour)) {
+            return distinct;
+        }
+
+        int root = percolation.root(neighbour);
+        for (int k = 0; k < distinct; k++) {
+            if (roots[k] == root) {
+                return distinct;
+            }
+        }
+        roots[distinct] = root;
+        return distinct + 1;
+    }
+
+    // sum of observable[n] weighted by the Binomial(M, p) probability of n,
+    // where M = observable.length - 1; the weights are built outwards from
+    // the most likely n by their ratios and normalised at the end, which
+    // avoids the underflow of evaluating each one directly
+    static double convolve(double[] observable, double p) {
+        int M = observable.length - 1;
+        if (p <= 0.0) {
+            return observable[0];
+        }
+        if (p >= 1.0) {
+            return observable[M];
+        }
+
+        int mode = (int) Math.min(M, Math.floor((M + 1) * p));
+        double odds = p / (1.0 - p);
+        double total = 1.0;
+        double sum = observable[mode];
+
+        double weight = 1.0;
+        for (int n = mode + 1; n <= M; n++) {
+            weight *= odds * (M - n + 1) / n;
+            if (weight < NEGLIGIBLE_WEIGHT) {
+                break;
+            }
+            total += weight;
+            sum += weight * observable[n];
+        }
+
+        weight = 1.0;
+        for (int n = mode - 1; n >= 0; n--) {
+            weight *= (n + 1) / (odds * (M - n));
+            if (weight < NEGLIGIBLE_WEIGHT) {
+                break;
+            }
+            total += weight;
+            sum += weight * observable[n];
+        }
+
+        return sum / total;
+    }
+
+    // number of p bins
+    public int bins() {
+        return this.percolationProbability.length;
+    }
+
+    // occupation probability at the centre of the given bin
+    public double p(int bin) {
+        validateBin(bin);
+        return (bin + 0.5) / this.percolationProbability.length;
+    }
+
+    // probability that a grid with sites open with the given bin's p
+    // percolates
+    public double percolationProbability(int bin) {
+        validateBin(bin);
+        return this.percolationProbability[bin];
+    }
+
+    // mean fraction of sites in the largest cluster at the given bin's p
+    public double largestClusterFraction(int bin) {
+        validateBin(bin);
+        return this.largestCluster[bin];
+    }
+
+    private void validateBin(int bin) {
+        if (bin < 0 || bin >= this.percolationProbability.length) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    // test client, prints one line per bin
+    public static void main(String[] args) {
+        if (args.length != 3 && args.length != 4) {
+            StdOut.println("Invalid arguments: "
+                    + "command line is PercolationSweep <N> <T> <bins> "
+                    + "[<seed>]");
+            return;
+        }
+
+        int N = Integer.parseInt(args[0]);
+        int T = Integer.parseInt(args[1]);
+        int bins = Integer.parseInt(args[2]);
+        PercolationSweep sweep;
+        if (args.length == 3) {
+            sweep = new PercolationSweep(N, T, bins);
+        } else {
+            sweep = new PercolationSweep(N, T, bins, Long.parseLong(args[3]));
+        }
+
+        StdOut.println("p\t\tP(percolates)\tlargest cluster");
+        for (int bin = 0; bin < sweep.bins(); bin++) {
+            StdOut.printf("%.4f\t\t%.4f\t\t%.4f%n", sweep.p(bin),
+                    sweep.percolationProbability(bin),
+                    sweep.largestClusterFraction(bin));
+        }
+    }
+}
@@ -1,10 +1,10 @@
 /****************************************************************************
  *  Compilation:  javac PercolationVisualizer.java
  *  Execution:    java PercolationVisualizer input.txt
- *  Dependencies: Percolation.java StdDraw.java In.java
+ *  Dependencies: Percolation.java StdDraw.java OpenSequenceReader.java
  *
  *  This program takes the name of a file as a command-line argument.
- *  From that file, it
+ *  From that file, in text or binary open-sequence format, it
  *
  *    - Reads the grid size N of the percolation system.
  *    - Creates an N-by-N grid of sites (intially all blocked)
@@ -17,6 +17,7 @@
  ****************************************************************************/
 
 import java.awt.Font;
+import java.io.IOException;
 
 public class PercolationVisualizer {
 
@@ -58,9 +59,9 @@ public class PercolationVisualizer {
 
     }
 
-    public static void main(String[] args) {
-        In in = new In(args[0]); // input file
-        int N = in.readInt(); // N-by-N percolation system
+    public static void main(String[] args) throws IOException {
+        OpenSequenceReader in = new OpenSequenceReader(args[0]); // input file
+        int N = in.gridSize(); // N-by-N percolation system
 
         // turn on animation mode
         StdDraw.show(0);
@@ -69,12 +70,11 @@ public class PercolationVisualizer {
         Percolation perc = new Percolation(N);
         draw(perc, N);
         StdDraw.show(DELAY);
-        while (!in.isEmpty()) {
-            int i = in.readInt();
-            int j = in.readInt();
-            perc.open(i, j);
+        while (in.next()) {
+            perc.open(in.row(), in.column());
             draw(perc, N);
             StdDraw.show(DELAY);
         }
+        in.close();
     }
 }
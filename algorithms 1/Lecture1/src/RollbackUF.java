@@ -0,0 +1,106 @@
+/****************************************************************************
+ *  Compilation:  javac RollbackUF.java
+ *  Dependencies: UnionFind.java
+ *
+ *  Weighted quick-union without path compression, so that every union
+ *  changes exactly one parent link and can be undone. Each union that
+ *  merges two components pushes the root it attached onto a log;
+ *  rollback(checkpoint) pops the log back to an earlier checkpoint().
+ *  Finds are O(log N) and never write.
+ *
+ ****************************************************************************/
+
+public class RollbackUF implements UnionFind {
+
+    private final int[] parent;
+    private final int[] size;
+    private int count;
+    private int[] history;
+    private int unions;
+
+    // create N sites, each in its own component
+    public RollbackUF(int N) {
+        if (N < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.parent = new int[N];
+        this.size = new int[N];
+        for (int i = 0; i < N; i++) {
+            this.parent[i] = i;
+            this.size[i] = 1;
+        }
+        this.count = N;
+        this.history = new int[16];
+        this.unions = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.parent.length;
+    }
+
+    @Override
+    public int count() {
+        return this.count;
+    }
+
+    @Override
+    public int find(int p) {
+        while (this.parent[p] != p) {
+            p = this.parent[p];
+        }
+        return p;
+    }
+
+    @Override
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    @Override
+    public int union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return rootP;
+        }
+
+        if (this.size[rootP] < this.size[rootQ]) {
+            int swap = rootP;
+            rootP = rootQ;
+            rootQ = swap;
+        }
+        this.parent[rootQ] = rootP;
+        this.size[rootP] += this.size[rootQ];
+        this.count--;
+
+        if (this.unions == this.history.length) {
+            int[] grown = new int[this.history.length * 2];
+            System.arraycopy(this.history, 0, grown, 0, this.unions);
+            this.history = grown;
+        }
+        this.history[this.unions++] = rootQ;
+        return rootP;
+    }
+
+    // marker for the current state, to be passed to rollback
+    public int checkpoint() {
+        return this.unions;
+    }
+
+    // undo every union made since checkpoint() returned the given marker
+    public void rollback(int checkpoint) {
+        if (checkpoint < 0 || checkpoint > this.unions) {
+            throw new IllegalArgumentException();
+        }
+
+        while (this.unions > checkpoint) {
+            int child = this.history[--this.unions];
+            int root = this.parent[child];
+            this.size[root] -= this.size[child];
+            this.parent[child] = child;
+            this.count++;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/****************************************************************************
+ *  Compilation:  javac TiledPercolation.java
+ *  Dependencies: PackedUF.java UnionFind.java
+ *
+ *  Percolation split into horizontal bands of rows. Each band keeps its
+ *  own union-find and only knows whether a component touches the band's
+ *  first or last row, so bands can be opened independently, on separate
+ *  threads when an executor is given to openAll.
+ *
+ *  percolates() and isFull() merge the bands lazily: the open sites of
+ *  every band's first and last row are labelled with their band-local
+ *  root, sites sharing a label are joined in a union-find over these
+ *  boundary slots, and so are open sites facing each other across
+ *  adjacent bands. Only the O(N) boundary labels per band take part, and
+ *  the merge is redone only after sites have been opened.
+ *
+ ****************************************************************************/
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+public class TiledPercolation {
+
+    private static final int LOWER_INDEX_BOUND = 1;
+    private static final int MINIMUM_GRID_SIZE = 1;
+
+    private static final byte OPEN = 1;
+    private static final byte FIRST_ROW = 2;
+    private static final byte LAST_ROW = 4;
+
+    private static final int NO_SLOT = -1;
+
+    private final int N;
+    private final int bandHeight;
+    private final Band[] bands;
+
+    // union-find over the boundary slots of all bands, rebuilt on demand;
+    // band b's first row is slots [2bN, 2bN + N) and its last row the N
+    // slots after that
+    private UnionFind boundary;
+    private boolean[] fullSlots;
+    private boolean merged;
+    private boolean percolates;
+
+    // create N-by-N grid, with all sites blocked, split into the given
+    // number of bands of equal height (the last may be shorter)
+    public TiledPercolation(int N, int bandCount) {
+        if (N < MINIMUM_GRID_SIZE) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (bandCount <= 0 || bandCount > N) {
+            throw new IllegalArgumentException();
+        }
+
+        this.N = N;
+        this.bandHeight = (N + bandCount - 1) / bandCount;
+        int count = (N + this.bandHeight - 1) / this.bandHeight;
+        this.bands = new Band[count];
+        for (int b = 0; b < count; b++) {
+            int first = b * this.bandHeight;
+            this.bands[b] = new Band(N, Math.min(this.bandHeight, N - first));
+        }
+        this.merged = false;
+    }
+
+    // number of bands the grid is split into
+    public int bands() {
+        return this.bands.length;
+    }
+
+    // open site (row i, column j) if it is not already
+    public void open(int i, int j) {
+        validateGridArguments(i, j);
+
+        int row = i - 1;
+        Band band = this.bands[row / this.bandHeight];
+        if (band.open(row % this.bandHeight, j - 1)) {
+            this.merged = false;
+        }
+    }
+
+    // open sites (rows[k], cols[k]) for every k, each band on its own task
+    // of the executor; the bands are independent so no locking is needed
+    public void openAll(int[] rows, int[] cols, ExecutorService executor) {
+        if (rows.length != cols.length) {
+            throw new IllegalArgumentException();
+        }
+        for (int k = 0; k < rows.length; k++) {
+            validateGridArguments(rows[k], cols[k]);
+        }
+
+        // bucket the sites by band as local row-major indices
+        final int[][] buckets = new int[this.bands.length][];
+        int[] sizes = new int[this.bands.length];
+        for (int k = 0; k < rows.length; k++) {
+            sizes[(rows[k] - 1) / this.bandHeight]++;
+        }
+        for (int b = 0; b < this.bands.length; b++) {
+            buckets[b] = new int[sizes[b]];
+            sizes[b] = 0;
+        }
+        for (int k = 0; k < rows.length; k++) {
+            int row = rows[k] - 1;
+            int b = row / this.bandHeight;
+            buckets[b][sizes[b]++] = ((row % this.bandHeight) * N)
+                    + (cols[k] - 1);
+        }
+
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int b = 0; b < this.bands.length; b++) {
+            if (buckets[b].length == 0) {
+                continue;
+            }
+            final Band band = this.bands[b];
+            final int[] sites = buckets[b];
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int k = 0; k < sites.length; k++) {
+                        band.open(sites[k] / N, sites[k] % N);
+                    }
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            await(future);
+        }
+        if (rows.length > 0) {
+            this.merged = false;
+        }
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void validateGridArguments(int i, int j) {
+        if (i < LOWER_INDEX_BOUND || j < LOWER_INDEX_BOUND || i > N || j > N) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    // is site (row i, column j) open?
+    public boolean isOpen(int i, int j) {
+        validateGridArguments(i, j);
+
+        int row = i - 1;
+        return this.bands[row / this.bandHeight].isOpen(
+                (row % this.bandHeight) * N + (j - 1));
+    }
+
+    // is site (row i, column j) full?
+    public boolean isFull(int i, int j) {
+        validateGridArguments(i, j);
+
+        int row = i - 1;
+        Band band = this.bands[row / this.bandHeight];
+        int local = (row % this.bandHeight) * N + (j - 1);
+        if (!band.isOpen(local)) {
+            return false;
+        }
+
+        merge();
+        int slot = band.slotOf(band.unionFind.find(local));
+        return slot != NO_SLOT && this.fullSlots[this.boundary.find(slot)];
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        merge();
+        return this.percolates;
+    }
+
+    // rebuild the boundary union-find if any site was opened since the
+    // last merge
+    private void merge() {
+        if (this.merged) {
+            return;
+        }
+
+        int slots = 2 * N * this.bands.length;
+        this.boundary = new PackedUF(slots);
+        this.fullSlots = new boolean[slots];
+
+        for (int b = 0; b < this.bands.length; b++) {
+            Band band = this.bands[b];
+            band.clearSlots();
+            int base = 2 * N * b;
+            int lastRow = (band.rows - 1) * N;
+            for (int c = 0; c < N; c++) {
+                labelSlot(band, c, base + c);
+                labelSlot(band, lastRow + c, base + N + c);
+            }
+
+            // join facing open sites of this band and the one above
+            if (b > 0) {
+                Band above = this.bands[b - 1];
+                int aboveBase = 2 * N * (b - 1) + N;
+                int aboveLastRow = (above.rows - 1) * N;
+                for (int c = 0; c < N; c++) {
+                    if (band.isOpen(c) && above.isOpen(aboveLastRow + c)) {
+                        this.boundary.union(base + c, aboveBase + c);
+                    }
+                }
+            }
+        }
+
+        // the open first-row sites of the top band are full, and everything
+        // joined to them
+        for (int c = 0; c < N; c++) {
+            if (this.bands[0].isOpen(c)) {
+                this.fullSlots[this.boundary.find(c)] = true;
+            }
+        }
+
+        Band bottom = this.bands[this.bands.length - 1];
+        int bottomBase = 2 * N * (this.bands.length - 1) + N;
+        int bottomRow = (bottom.rows - 1) * N;
+        this.percolates = false;
+        for (int c = 0; c < N; c++) {
+            if (bottom.isOpen(bottomRow + c)
+                    && this.fullSlots[this.boundary.find(bottomBase + c)]) {
+                this.percolates = true;
+                break;
+            }
+        }
+
+        this.merged = true;
+    }
+
+    // give an open boundary site's local root a slot, or join the slot to
+    // the one its root already has
+    private void labelSlot(Band band, int local, int slot) {
+        if (!band.isOpen(local)) {
+            return;
+        }
+
+        int root = band.unionFind.find(local);
+        int existing = band.slotOf(root);
+        if (existing == NO_SLOT) {
+            band.putSlot(root, slot);
+        } else {
+            this.boundary.union(existing, slot);
+        }
+    }
+
+    // one band of rows with its own union-find; FIRST_ROW and LAST_ROW on a
+    // root record whether the component touches the band's edges
+    private static final class Band {
+
+        private final int N;
+        private final int rows;
+        private final byte[] state;
+        private final UnionFind unionFind;
+
+        // open addressing map from local root to boundary slot
+        private final int[] slotKeys;
+        private final int[] slotValues;
+
+        Band(int N, int rows) {
+            this.N = N;
+            this.rows = rows;
+            this.state = new byte[N * rows];
+            this.unionFind = new PackedUF(N * rows);
+
+            int capacity = Integer.highestOneBit(4 * N - 1) << 1;
+            this.slotKeys = new int[capacity];
+            this.slotValues = new int[capacity];
+        }
+
+        boolean isOpen(int local) {
+            return (this.state[local] & OPEN) != 0;
+        }
+
+        // open a site of the band, returning whether it was blocked
+        boolean open(int row, int column) {
+            int local = (row * N) + column;
+            if (isOpen(local)) {
+                return false;
+            }
+
+            byte status = OPEN;
+            if (row == 0) {
+                status |= FIRST_ROW;
+            }
+            if (row == this.rows - 1) {
+                status |= LAST_ROW;
+            }
+            this.state[local] = status;
+
+            if (row > 0) {
+                status |= joinIfOpen(local, local - N);
+            }
+            if (row < this.rows - 1) {
+                status |= joinIfOpen(local, local + N);
+            }
+            if (column > 0) {
+                status |= joinIfOpen(local, local - 1);
+            }
+            if (column < N - 1) {
+                status |= joinIfOpen(local, local + 1);
+            }
+
+            this.state[this.unionFind.find(local)] |= status;
+            return true;
+        }
+
+        private byte joinIfOpen(int local, int neighbour) {
+            if (!isOpen(neighbour)) {
+                return 0;
+            }
+
+            byte status = this.state[this.unionFind.find(neighbour)];
+            this.unionFind.union(local, neighbour);
+            return status;
+        }
+
+        void clearSlots() {
+            for (int k = 0; k < this.slotKeys.length; k++) {
+                this.slotKeys[k] = NO_SLOT;
+            }
+        }
+
+        // boundary slot of a local root, or NO_SLOT if the root's component
+        // does not reach the band's first or last row
+        int slotOf(int root) {
+            if ((this.state[root] & (FIRST_ROW | LAST_ROW)) == 0) {
+                return NO_SLOT;
+            }
+
+            int mask = this.slotKeys.length - 1;
+            int k = mix(root) & mask;
+            while (this.slotKeys[k] != NO_SLOT) {
+                if (this.slotKeys[k] == root) {
+                    return this.slotValues[k];
+                }
+                k = (k + 1) & mask;
+            }
+            return NO_SLOT;
+        }
+
+        void putSlot(int root, int slot) {
+            int mask = this.slotKeys.length - 1;
+            int k = mix(root) & mask;
+            while (this.slotKeys[k] != NO_SLOT) {
+                k = (k + 1) & mask;
+            }
+            this.slotKeys[k] = root;
+            this.slotValues[k] = slot;
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9e3779b9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/****************************************************************************
+ *  Compilation:  javac TrialLog.java
+ *  Dependencies: PercolationStats.java
+ *
+ *  Append-only binary log of finished PercolationStats trials, so that an
+ *  interrupted run can resume where it stopped and its statistics can be
+ *  recomputed without rerunning anything.
+ *
+ *  The file starts with the magic bytes "PLOG", the grid size N and the
+ *  master seed, followed by one fixed-width record per finished trial:
+ *  the trial number, the seed of the trial's generator and its result.
+ *  A trial's seed must be the one PercolationStats derives from the master
+ *  seed, so a log whose records come from another seed is rejected.
+ *  Every record is flushed as it is appended, so a crash loses at most the
+ *  trials still running; a record cut short by the crash is dropped when
+ *  the log is reopened. load() reads a log without writing to it, so it
+ *  is safe on a log that a running job is still appending to.
+ *
+ ****************************************************************************/
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class TrialLog {
+
+    private static final int MAGIC = 0x504c4f47;
+    private static final int HEADER_SIZE = 4 + 4 + 8;
+    private static final int RECORD_SIZE = 4 + 8 + 8;
+
+    private final int N;
+    private final long seed;
+
+    // null for a log opened by load()
+    private final DataOutputStream out;
+    private final BitSet completed;
+    private double[] results;
+
+    // create the log for an N-by-N run with the given master seed, or resume
+    // it if the file already holds a log of the same run
+    public TrialLog(String fileName, int N, long seed) throws IOException {
+        File file = new File(fileName);
+        this.N = N;
+        this.seed = seed;
+        this.completed = new BitSet();
+        this.results = new double[16];
+
+        if (file.exists() && file.length() > 0) {
+            long valid = read(file);
+
+            // drop a partially written trailing record before appending
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.setLength(valid);
+            } finally {
+                raf.close();
+            }
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(file, true)));
+        } else {
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(file)));
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(N);
+            this.out.writeLong(seed);
+            this.out.flush();
+        }
+    }
+
+    // a read-only log holding the complete records of the file, whose
+    // header gives the grid size N and master seed
+    private TrialLog(File file, int N, long seed) throws IOException {
+        this.N = N;
+        this.seed = seed;
+        this.completed = new BitSet();
+        this.results = new double[16];
+        this.out = null;
+        read(file);
+    }
+
+    // read an existing log without modifying the file; a record still being
+    // written by another process is ignored, and append() is not allowed
+    public static TrialLog load(String fileName) throws IOException {
+        File file = new File(fileName);
+        if (!file.exists()) {
+            throw new IOException("no trial log " + fileName);
+        }
+
+        DataInputStream in = openLog(file);
+        try {
+            return new TrialLog(file, in.readInt(), in.readLong());
+        } finally {
+            in.close();
+        }
+    }
+
+    // open the file positioned after the magic bytes
+    private static DataInputStream openLog(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file)));
+        if (file.length() < HEADER_SIZE || in.readInt() != MAGIC) {
+            in.close();
+            throw new IOException(file + " is not a trial log");
+        }
+        return in;
+    }
+
+    // load all complete records of a log whose header must match this run,
+    // returning the length of the valid prefix of the file
+    private long read(File file) throws IOException {
+        DataInputStream in = openLog(file);
+        try {
+            if (in.readInt() != this.N || in.readLong() != this.seed) {
+                throw new IllegalArgumentException("log " + file
+                        + " belongs to a different run");
+            }
+
+            long records = (file.length() - HEADER_SIZE) / RECORD_SIZE;
+            for (long k = 0; k < records; k++) {
+                int trial = in.readInt();
+                long trialSeed = in.readLong();
+                if (trial < 0 || trialSeed != expectedSeed(trial)) {
+                    throw new IOException(file + " trial " + trial
+                            + " does not belong to master seed " + this.seed);
+                }
+                record(trial, in.readDouble());
+            }
+            return HEADER_SIZE + (records * RECORD_SIZE);
+        } catch (EOFException e) {
+            throw new IOException(file + " is not a trial log", e);
+        } finally {
+            in.close();
+        }
+    }
+
+    private long expectedSeed(int trial) {
+        return PercolationStats.trialSeed(this.seed, trial);
+    }
+
+    private void record(int trial, double result) {
+        if (trial >= this.results.length) {
+            this.results = Arrays.copyOf(this.results, Math.max(trial + 1,
+                    this.results.length * 2));
+        }
+        this.results[trial] = result;
+        this.completed.set(trial);
+    }
+
+    // grid size N of the logged run
+    public int gridSize() {
+        return this.N;
+    }
+
+    // master seed of the logged run
+    public long seed() {
+        return this.seed;
+    }
+
+    // has the given trial been logged?
+    public synchronized boolean isComplete(int trial) {
+        return this.completed.get(trial);
+    }
+
+    // logged result of the given trial
+    public synchronized double result(int trial) {
+        if (!this.completed.get(trial)) {
+            throw new IllegalArgumentException();
+        }
+        return this.results[trial];
+    }
+
+    // number of logged trials
+    public synchronized int completedTrials() {
+        return this.completed.cardinality();
+    }
+
+    // results of all logged trials, in trial order
+    public synchronized double[] completedResults() {
+        double[] logged = new double[this.completed.cardinality()];
+        int trial = this.completed.nextSetBit(0);
+        for (int k = 0; k < logged.length; k++) {
+            logged[k] = this.results[trial];
+            trial = this.completed.nextSetBit(trial + 1);
+        }
+        return logged;
+    }
+
+    // append a finished trial and flush it to the file
+    public synchronized void append(int trial, long trialSeed, double result) {
+        if (trial < 0 || trialSeed != expectedSeed(trial)) {
+            throw new IllegalArgumentException();
+        }
+        if (this.out == null) {
+            throw new UnsupportedOperationException("log opened by load()");
+        }
+
+        try {
+            this.out.writeInt(trial);
+            this.out.writeLong(trialSeed);
+            this.out.writeDouble(result);
+            this.out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        record(trial, result);
+    }
+
+    // flush and close the file
+    public synchronized void close() throws IOException {
+        if (this.out != null) {
+            this.out.close();
+        }
+    }
+}
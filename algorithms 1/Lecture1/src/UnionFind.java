@@ -0,0 +1,20 @@
+// union-find over the sites 0 to size() - 1, used by Percolation so that
+// different backends can be swapped in and compared
+public interface UnionFind {
+
+    // number of sites
+    int size();
+
+    // number of components
+    int count();
+
+    // root of the component containing site p
+    int find(int p);
+
+    // are sites p and q in the same component?
+    boolean connected(int p, int q);
+
+    // merge the components containing p and q, returning the root of the
+    // merged component
+    int union(int p, int q);
+}
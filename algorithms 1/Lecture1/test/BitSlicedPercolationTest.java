@@ -0,0 +1,47 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+// checks every trial of a bit-sliced sample against a breadth-first
+// search of that trial's open sites
+public class BitSlicedPercolationTest {
+
+    private static final int SAMPLES = PercolationReference.GRIDS / 4;
+    private static final int MAXIMUM_N = PercolationReference.MAXIMUM_N;
+
+    @Test
+    public void everyTrialMatchesReference() {
+        SplittableRandom random = new SplittableRandom(9);
+        for (int t = 0; t < SAMPLES; t++) {
+            int N = random.nextInt(MAXIMUM_N) + 1;
+            BitSlicedPercolation percolation = new BitSlicedPercolation(N);
+            long mask = percolation.sample(random.nextDouble(), random);
+            for (int trial = 0; trial < BitSlicedPercolation.TRIALS_PER_WORD;
+                    trial++) {
+                boolean[][] open = new boolean[N][N];
+                for (int index = 0; index < N * N; index++) {
+                    open[index / N][index % N] = ((percolation
+                            .openTrials(index) >>> trial) & 1) != 0;
+                }
+                assertEquals(PercolationReference.percolates(
+                        PercolationReference.fullSites(open)),
+                        ((mask >>> trial) & 1) != 0);
+            }
+        }
+    }
+
+    @Test
+    public void certainProbabilities() {
+        BitSlicedPercolation percolation = new BitSlicedPercolation(5);
+        SplittableRandom random = new SplittableRandom(1);
+        assertEquals(0L, percolation.sample(0.0, random));
+        assertEquals(-1L, percolation.sample(1.0, random));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsProbabilityAboveOne() {
+        new BitSlicedPercolation(5).sample(1.5, new SplittableRandom(1));
+    }
+}
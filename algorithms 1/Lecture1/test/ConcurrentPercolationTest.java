@@ -0,0 +1,232 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class ConcurrentPercolationTest {
+
+    private static final int READERS = 6;
+    private static final int N = 200;
+
+    // grid size for the snapshot check, which searches each whole snapshot
+    private static final int SNAPSHOT_N = 30;
+
+    // what a reader thread does until the writer has finished
+    private interface Reader {
+
+        void read(SplittableRandom random);
+    }
+
+    // single-threaded, the grid answers as a breadth-first search does
+    @Test
+    public void matchesReference() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int t = 0; t < PercolationReference.GRIDS; t++) {
+            int size = random.nextInt(PercolationReference.MAXIMUM_N) + 1;
+            PercolationReference.checkRandomOpens("ConcurrentPercolation",
+                    PercolationReference.grid(new ConcurrentPercolation(size)),
+                    size, random);
+        }
+    }
+
+    // a snapshot keeps its answers while later sites are opened
+    @Test
+    public void snapshotIsFrozen() {
+        ConcurrentPercolation percolation = new ConcurrentPercolation(3);
+        percolation.open(1, 2);
+        ConcurrentPercolation.Snapshot before = percolation.snapshot();
+        percolation.open(2, 2);
+        percolation.open(3, 2);
+        percolation.open(3, 2);
+
+        assertTrue(percolation.percolates());
+        assertEquals(3, percolation.numberOfOpenSites());
+        assertTrue(percolation.isFull(3, 2));
+
+        assertFalse(before.percolates());
+        assertEquals(1, before.numberOfOpenSites());
+        assertTrue(before.isFull(1, 2));
+        assertFalse(before.isOpen(2, 2));
+        assertFalse(before.isFull(3, 2));
+    }
+
+    // one thread opens every site in random order while readers query
+    // random sites; a site never stops being open or full, nothing is full
+    // without being open, and the final state matches Percolation
+    @Test
+    public void readersRacingWriterSeeMonotonicState()
+            throws InterruptedException {
+        final ConcurrentPercolation percolation = new ConcurrentPercolation(N);
+        final int[] sites = shuffledSites(N, new SplittableRandom(42));
+
+        race(percolation, sites, new Reader() {
+            @Override
+            public void read(SplittableRandom random) {
+                readMonotonic(percolation, random);
+            }
+        });
+
+        Percolation reference = new Percolation(N);
+        for (int k = 0; k < sites.length; k++) {
+            reference.open((sites[k] / N) + 1, (sites[k] % N) + 1);
+        }
+        assertEquals(N * N, percolation.numberOfOpenSites());
+        assertTrue(percolation.percolates());
+        for (int i = 1; i <= N; i++) {
+            for (int j = 1; j <= N; j++) {
+                assertEquals(reference.isFull(i, j), percolation.isFull(i, j));
+            }
+        }
+    }
+
+    // every snapshot a reader takes mid-write is exactly the grid after its
+    // number of opens: those first sites of the sequence are open, the full
+    // sites are those a search of them finds, and it stays that way
+    @Test
+    public void snapshotsRacingWriterAreConsistent()
+            throws InterruptedException {
+        final ConcurrentPercolation percolation = new ConcurrentPercolation(
+                SNAPSHOT_N);
+        final int[] sites = shuffledSites(SNAPSHOT_N, new SplittableRandom(7));
+        final List<ConcurrentPercolation.Snapshot> taken =
+                new ArrayList<ConcurrentPercolation.Snapshot>();
+
+        race(percolation, sites, new Reader() {
+            @Override
+            public void read(SplittableRandom random) {
+                ConcurrentPercolation.Snapshot snapshot =
+                        percolation.snapshot();
+                checkSnapshot(snapshot, sites);
+                if (random.nextInt(16) == 0) {
+                    synchronized (taken) {
+                        taken.add(snapshot);
+                    }
+                }
+            }
+        });
+
+        assertTrue(taken.size() > 0);
+        for (ConcurrentPercolation.Snapshot snapshot : taken) {
+            checkSnapshot(snapshot, sites);
+        }
+    }
+
+    // start the readers, open the sites in order on this thread and wait
+    // for the readers, failing with the first error any of them raised
+    private static void race(ConcurrentPercolation percolation, int[] sites,
+            final Reader reader) throws InterruptedException {
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure =
+                new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] readers = new Thread[READERS];
+        for (int k = 0; k < READERS; k++) {
+            final long seed = k;
+            readers[k] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    try {
+                        start.await();
+                        while (writing.get()) {
+                            reader.read(random);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            readers[k].start();
+        }
+
+        int size = (int) Math.round(Math.sqrt(sites.length));
+        start.countDown();
+        for (int k = 0; k < sites.length; k++) {
+            percolation.open((sites[k] / size) + 1, (sites[k] % size) + 1);
+            if ((k & 63) == 0) {
+                // give the readers a chance on a single core
+                Thread.yield();
+            }
+        }
+        writing.set(false);
+        for (Thread thread : readers) {
+            thread.join();
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    private static void readMonotonic(ConcurrentPercolation percolation,
+            SplittableRandom random) {
+        boolean[] seenOpen = new boolean[N * N];
+        boolean[] seenFull = new boolean[N * N];
+        boolean seenPercolates = false;
+        int seenOpenSites = 0;
+
+        for (int query = 0; query < 1000; query++) {
+            int index = random.nextInt(N * N);
+            int i = (index / N) + 1;
+            int j = (index % N) + 1;
+
+            boolean full = percolation.isFull(i, j);
+            boolean open = percolation.isOpen(i, j);
+            assertFalse("full but not open", full && !open);
+            assertFalse("closed again", seenOpen[index] && !open);
+            assertFalse("emptied again", seenFull[index] && !full);
+            seenOpen[index] = open;
+            seenFull[index] = full;
+
+            boolean percolates = percolation.percolates();
+            assertFalse(seenPercolates && !percolates);
+            seenPercolates = percolates;
+
+            int openSites = percolation.numberOfOpenSites();
+            assertTrue(openSites >= seenOpenSites);
+            seenOpenSites = openSites;
+        }
+    }
+
+    private static void checkSnapshot(ConcurrentPercolation.Snapshot snapshot,
+            int[] sites) {
+        int size = (int) Math.round(Math.sqrt(sites.length));
+        boolean[][] open = new boolean[size][size];
+        for (int k = 0; k < snapshot.numberOfOpenSites(); k++) {
+            open[sites[k] / size][sites[k] % size] = true;
+        }
+
+        boolean[][] full = PercolationReference.fullSites(open);
+        for (int i = 1; i <= size; i++) {
+            for (int j = 1; j <= size; j++) {
+                assertEquals(open[i - 1][j - 1], snapshot.isOpen(i, j));
+                assertEquals(full[i - 1][j - 1], snapshot.isFull(i, j));
+            }
+        }
+        assertEquals(PercolationReference.percolates(full),
+                snapshot.percolates());
+    }
+
+    private static int[] shuffledSites(int size, SplittableRandom random) {
+        int[] sites = new int[size * size];
+        for (int k = 0; k < sites.length; k++) {
+            sites[k] = k;
+        }
+        for (int k = sites.length - 1; k > 0; k--) {
+            int pick = random.nextInt(k + 1);
+            int site = sites[pick];
+            sites[pick] = sites[k];
+            sites[k] = site;
+        }
+        return sites;
+    }
+}
@@ -0,0 +1,46 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+// checks the row-streaming Hoshen-Kopelman scan against a breadth-first
+// search of every prefix of the same rows
+public class HoshenKopelmanTest {
+
+    private static final int LATTICES = 5 * PercolationReference.GRIDS;
+    private static final int MAXIMUM_WIDTH = PercolationReference.MAXIMUM_N;
+
+    @Test
+    public void matchesReferenceAfterEveryRow() {
+        SplittableRandom random = new SplittableRandom(8);
+        for (int t = 0; t < LATTICES; t++) {
+            int width = random.nextInt(MAXIMUM_WIDTH) + 1;
+            int height = random.nextInt(3 * MAXIMUM_WIDTH) + 1;
+            double p = random.nextDouble();
+            boolean[][] open = new boolean[height][width];
+            HoshenKopelman lattice = new HoshenKopelman(width);
+            for (int r = 0; r < height; r++) {
+                for (int c = 0; c < width; c++) {
+                    open[r][c] = random.nextDouble() < p;
+                }
+                lattice.addRow(open[r].clone());
+
+                boolean[][] full = PercolationReference.fullSites(
+                        Arrays.copyOf(open, r + 1));
+                long fullSites = 0;
+                for (int k = 0; k <= r; k++) {
+                    for (int c = 0; c < width; c++) {
+                        if (full[k][c]) {
+                            fullSites++;
+                        }
+                    }
+                }
+                assertEquals(PercolationReference.percolates(full),
+                        lattice.percolates());
+                assertEquals(fullSites, lattice.fullSites());
+            }
+        }
+    }
+}
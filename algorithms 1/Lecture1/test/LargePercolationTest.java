@@ -0,0 +1,42 @@
+import java.io.File;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+// checks LargePercolation against a breadth-first search of the same open
+// sites, in direct memory and backed by a file
+public class LargePercolationTest {
+
+    private static final int GRIDS = PercolationReference.GRIDS;
+    private static final int MAXIMUM_N = PercolationReference.MAXIMUM_N;
+
+    @Test
+    public void directMemory() throws Exception {
+        SplittableRandom random = new SplittableRandom(4);
+        for (int t = 0; t < GRIDS; t++) {
+            int N = random.nextInt(MAXIMUM_N) + 1;
+            LargePercolation percolation = new LargePercolation(N);
+            PercolationReference.checkRandomOpens("LargePercolation",
+                    PercolationReference.grid(percolation), N, random);
+            percolation.close();
+        }
+    }
+
+    @Test
+    public void mappedFile() throws Exception {
+        SplittableRandom random = new SplittableRandom(11);
+        File file = File.createTempFile("percolation", ".grid");
+        try {
+            for (int t = 0; t < GRIDS / 10; t++) {
+                int N = random.nextInt(MAXIMUM_N) + 1;
+                LargePercolation percolation = new LargePercolation(N,
+                        file.getPath());
+                PercolationReference.checkRandomOpens("mapped",
+                        PercolationReference.grid(percolation), N, random);
+                percolation.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
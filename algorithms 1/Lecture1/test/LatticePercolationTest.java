@@ -0,0 +1,157 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+// checks LatticePercolation on every lattice against a breadth-first
+// search of the same open sites over the lattice's own neighbours
+public class LatticePercolationTest {
+
+    private static final int GRIDS = PercolationReference.GRIDS / 4;
+
+    // largest N tried, kept small since cubic lattices have N^3 sites
+    private static final int MAXIMUM_N = 6;
+
+    @Test
+    public void square() {
+        checkLattices("square", new SplittableRandom(1));
+    }
+
+    @Test
+    public void triangular() {
+        checkLattices("triangular", new SplittableRandom(2));
+    }
+
+    @Test
+    public void hexagonal() {
+        checkLattices("hexagonal", new SplittableRandom(3));
+    }
+
+    @Test
+    public void cubic() {
+        checkLattices("cubic", new SplittableRandom(4));
+    }
+
+    // every edge is stored from both ends, and no site is its own neighbour
+    @Test
+    public void neighboursAreSymmetric() {
+        Lattice[] lattices = { Lattice.square(5), Lattice.triangular(5),
+                Lattice.hexagonal(5), Lattice.cubic(4) };
+        for (Lattice lattice : lattices) {
+            for (int site = 0; site < lattice.sites(); site++) {
+                for (int k = 0; k < lattice.degree(site); k++) {
+                    int neighbour = lattice.neighbour(site, k);
+                    assertTrue(neighbour != site);
+                    assertTrue(isNeighbour(lattice, neighbour, site));
+                }
+            }
+        }
+    }
+
+    // a path graph percolates only once every site on it is open
+    @Test
+    public void graph() {
+        Lattice path = Lattice.graph(4, new int[] { 0, 1, 2 },
+                new int[] { 1, 2, 3 }, new int[] { 0 }, new int[] { 3 });
+        LatticePercolation percolation = new LatticePercolation(path);
+        percolation.open(0);
+        percolation.open(3);
+        percolation.open(2);
+        assertFalse(percolation.percolates());
+        assertFalse(percolation.isFull(3));
+        percolation.open(1);
+        assertTrue(percolation.percolates());
+        assertTrue(percolation.isFull(3));
+        assertEquals(4, percolation.numberOfOpenSites());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsSiteOutsideLattice() {
+        new LatticePercolation(Lattice.square(3)).open(9);
+    }
+
+    private static void checkLattices(String name, SplittableRandom random) {
+        for (int t = 0; t < GRIDS; t++) {
+            int N = random.nextInt(MAXIMUM_N) + 1;
+            Lattice lattice = lattice(name, N);
+            LatticePercolation percolation = new LatticePercolation(lattice);
+            boolean[] open = new boolean[lattice.sites()];
+            int openSites = 0;
+            for (int step = 0; step < 2 * lattice.sites(); step++) {
+                int site = random.nextInt(lattice.sites());
+                percolation.open(site);
+                if (!open[site]) {
+                    open[site] = true;
+                    openSites++;
+                }
+                assertMatches(name, lattice, percolation, open, openSites);
+            }
+        }
+    }
+
+    private static Lattice lattice(String name, int N) {
+        if (name.equals("square")) {
+            return Lattice.square(N);
+        } else if (name.equals("triangular")) {
+            return Lattice.triangular(N);
+        } else if (name.equals("hexagonal")) {
+            return Lattice.hexagonal(N);
+        }
+        return Lattice.cubic(N);
+    }
+
+    private static void assertMatches(String name, Lattice lattice,
+            LatticePercolation percolation, boolean[] open, int openSites) {
+        boolean[] full = fullSites(lattice, open);
+        boolean percolates = false;
+        for (int site = 0; site < open.length; site++) {
+            assertEquals(name + " open " + site, open[site],
+                    percolation.isOpen(site));
+            assertEquals(name + " full " + site, full[site],
+                    percolation.isFull(site));
+            percolates |= full[site] && lattice.isBottom(site);
+        }
+        assertEquals(name + " open sites", openSites,
+                percolation.numberOfOpenSites());
+        assertEquals(name + " percolates", percolates,
+                percolation.percolates());
+    }
+
+    // open sites reachable from an open top site
+    private static boolean[] fullSites(Lattice lattice, boolean[] open) {
+        boolean[] full = new boolean[open.length];
+        int[] queue = new int[open.length];
+        int head = 0;
+        int tail = 0;
+        for (int site = 0; site < open.length; site++) {
+            if (open[site] && lattice.isTop(site)) {
+                full[site] = true;
+                queue[tail++] = site;
+            }
+        }
+
+        while (head < tail) {
+            int site = queue[head++];
+            for (int k = 0; k < lattice.degree(site); k++) {
+                int neighbour = lattice.neighbour(site, k);
+                if (open[neighbour] && !full[neighbour]) {
+                    full[neighbour] = true;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return full;
+    }
+
+    private static boolean isNeighbour(Lattice lattice, int site, int other) {
+        for (int k = 0; k < lattice.degree(site); k++) {
+            if (lattice.neighbour(site, k) == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
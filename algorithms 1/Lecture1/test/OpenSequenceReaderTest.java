@@ -0,0 +1,136 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.SplittableRandom;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class OpenSequenceReaderTest {
+
+    private final File text = createTempFile(".txt");
+    private final File binary = createTempFile(".bin");
+    private final File back = createTempFile(".txt");
+
+    private static File createTempFile(String suffix) {
+        try {
+            return File.createTempFile("sequence", suffix);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @After
+    public void deleteFiles() {
+        text.delete();
+        binary.delete();
+        back.delete();
+    }
+
+    private static void write(File file, byte[] bytes) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] convert(File from, boolean toBinary)
+            throws IOException {
+        OpenSequenceReader in = new OpenSequenceReader(from.getPath());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            if (toBinary) {
+                OpenSequenceConverter.writeBinary(in, out);
+            } else {
+                OpenSequenceConverter.writeText(in, out);
+            }
+        } finally {
+            in.close();
+        }
+        return out.toByteArray();
+    }
+
+    // the sites of a file, row then column
+    private static int[] read(File file, int N, boolean binary)
+            throws IOException {
+        OpenSequenceReader in = new OpenSequenceReader(file.getPath());
+        try {
+            assertEquals(N, in.gridSize());
+            assertEquals(binary, in.isBinary());
+            int[] sites = new int[0];
+            while (in.next()) {
+                sites = Arrays.copyOf(sites, sites.length + 2);
+                sites[sites.length - 2] = in.row();
+                sites[sites.length - 1] = in.column();
+            }
+            assertFalse(in.next());
+            return sites;
+        } finally {
+            in.close();
+        }
+    }
+
+    // text -> binary -> reader and binary -> text give back the same sites,
+    // including values that need every varint byte
+    @Test
+    public void textBinaryRoundTrip() throws IOException {
+        SplittableRandom random = new SplittableRandom(1);
+        int N = Integer.MAX_VALUE;
+        int[] sites = new int[2000];
+        StringBuilder source = new StringBuilder();
+        source.append("  ").append(N).append("\r\n");
+        for (int k = 0; k < sites.length; k += 2) {
+            // rows of every varint length, from one byte to five
+            sites[k] = 1 + random.nextInt(Integer.MAX_VALUE >>> random
+                    .nextInt(31));
+            sites[k + 1] = k == 0 ? Integer.MAX_VALUE : 1 + random.nextInt(N);
+            source.append(sites[k]).append(k % 3 == 0 ? "\t" : " ")
+                    .append(sites[k + 1]).append('\n');
+        }
+        write(text, source.toString().getBytes("US-ASCII"));
+
+        write(binary, convert(text, true));
+        assertTrue(binary.length() < text.length());
+        assertArrayEquals(sites, read(binary, N, true));
+
+        write(back, convert(binary, false));
+        assertArrayEquals(sites, read(back, N, false));
+    }
+
+    @Test(expected = InputMismatchException.class)
+    public void rejectsOversizedLastVarintByte() throws IOException {
+        // N = 3, then a row whose fifth byte carries more than 4 bits
+        write(binary, new byte[] { 'P', 'S', 'E', 'Q', 3, (byte) 0xff,
+                (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x10, 1 });
+        read(binary, 3, true);
+    }
+
+    @Test(expected = InputMismatchException.class)
+    public void rejectsSixByteVarint() throws IOException {
+        write(binary, new byte[] { 'P', 'S', 'E', 'Q', 3, (byte) 0x81,
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0, 1 });
+        read(binary, 3, true);
+    }
+
+    @Test(expected = InputMismatchException.class)
+    public void rejectsTruncatedVarint() throws IOException {
+        write(binary, new byte[] { 'P', 'S', 'E', 'Q', 3, 1, (byte) 0x81 });
+        read(binary, 3, true);
+    }
+
+    @Test(expected = InputMismatchException.class)
+    public void rejectsRowWithoutColumn() throws IOException {
+        write(text, "3\n1 2\n3".getBytes("US-ASCII"));
+        read(text, 3, false);
+    }
+}
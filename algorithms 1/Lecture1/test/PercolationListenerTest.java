@@ -0,0 +1,55 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+// checks the events a PercolationListener receives against a
+// breadth-first search of the same open sites
+public class PercolationListenerTest {
+
+    private static final int GRIDS = PercolationReference.GRIDS;
+    private static final int MAXIMUM_N = PercolationReference.MAXIMUM_N;
+
+    // each site is reported opened once, when it opens, and filled once,
+    // when it becomes full
+    @Test
+    public void eachSiteReportedOnce() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int t = 0; t < GRIDS; t++) {
+            final int N = random.nextInt(MAXIMUM_N) + 1;
+            final boolean[][] opened = new boolean[N][N];
+            final int[][] filled = new int[N][N];
+            Percolation percolation = new Percolation(N);
+            percolation.setListener(new PercolationListener() {
+                @Override
+                public void opened(int i, int j) {
+                    assertTrue(!opened[i - 1][j - 1]);
+                    opened[i - 1][j - 1] = true;
+                }
+
+                @Override
+                public void filled(int i, int j) {
+                    filled[i - 1][j - 1]++;
+                }
+            });
+
+            boolean[][] open = new boolean[N][N];
+            for (int step = 0; step < 2 * N * N; step++) {
+                int i = random.nextInt(N) + 1;
+                int j = random.nextInt(N) + 1;
+                percolation.open(i, j);
+                open[i - 1][j - 1] = true;
+
+                boolean[][] full = PercolationReference.fullSites(open);
+                for (int r = 0; r < N; r++) {
+                    for (int c = 0; c < N; c++) {
+                        assertEquals(open[r][c], opened[r][c]);
+                        assertEquals(full[r][c] ? 1 : 0, filled[r][c]);
+                    }
+                }
+            }
+        }
+    }
+}
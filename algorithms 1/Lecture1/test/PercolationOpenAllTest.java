@@ -0,0 +1,73 @@
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+// checks Percolation.openAll against a breadth-first search of the same
+// open sites
+public class PercolationOpenAllTest {
+
+    private static final int GRIDS = PercolationReference.GRIDS;
+    private static final int MAXIMUM_N = PercolationReference.MAXIMUM_N;
+
+    // a random batch of sites as rows and columns, possibly repeated or
+    // already open
+    static int[][] randomBatch(int N, SplittableRandom random) {
+        int size = random.nextInt(N * N) + 1;
+        int[][] batch = new int[2][size];
+        for (int k = 0; k < size; k++) {
+            batch[0][k] = random.nextInt(N) + 1;
+            batch[1][k] = random.nextInt(N) + 1;
+        }
+        return batch;
+    }
+
+    @Test
+    public void rowsAndColumns() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int t = 0; t < GRIDS; t++) {
+            int N = random.nextInt(MAXIMUM_N) + 1;
+            Percolation percolation = new Percolation(N);
+            boolean[][] open = new boolean[N][N];
+            for (int batch = 0; batch < 3; batch++) {
+                int[][] sites = randomBatch(N, random);
+                percolation.openAll(sites[0], sites[1]);
+                for (int k = 0; k < sites[0].length; k++) {
+                    open[sites[0][k] - 1][sites[1][k] - 1] = true;
+                }
+                PercolationReference.assertMatches("openAll",
+                        PercolationReference.grid(percolation), open);
+            }
+        }
+    }
+
+    @Test
+    public void indices() {
+        SplittableRandom random = new SplittableRandom(12);
+        for (int t = 0; t < GRIDS; t++) {
+            int N = random.nextInt(MAXIMUM_N) + 1;
+            Percolation percolation = new Percolation(N);
+            boolean[][] open = new boolean[N][N];
+            for (int batch = 0; batch < 3; batch++) {
+                int[][] sites = randomBatch(N, random);
+                int[] indices = new int[sites[0].length];
+                for (int k = 0; k < indices.length; k++) {
+                    indices[k] = ((sites[0][k] - 1) * N) + sites[1][k] - 1;
+                    open[sites[0][k] - 1][sites[1][k] - 1] = true;
+                }
+                percolation.openAll(indices);
+                PercolationReference.assertMatches("openAll indices",
+                        PercolationReference.grid(percolation), open);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMismatchedLengths() {
+        new Percolation(3).openAll(new int[] { 1, 2 }, new int[] { 1 });
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsSiteOutsideGrid() {
+        new Percolation(3).openAll(new int[] { 1, 4 }, new int[] { 1, 1 });
+    }
+}
@@ -0,0 +1,174 @@
+import static org.junit.Assert.assertEquals;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.SplittableRandom;
+
+// breadth-first answers that the percolation engine tests check against,
+// and one view of the engines' grid calls
+final class PercolationReference {
+
+    static final int GRIDS = 200;
+    static final int MAXIMUM_N = 12;
+
+    // the calls the grid engines share
+    interface Grid {
+
+        void open(int i, int j);
+
+        boolean isOpen(int i, int j);
+
+        boolean isFull(int i, int j);
+
+        boolean percolates();
+    }
+
+    private PercolationReference() {
+    }
+
+    // view an engine with public open, isOpen, isFull and percolates
+    // methods as a Grid
+    static Grid grid(Object engine) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Class<?> type = engine.getClass();
+        MethodType site = MethodType.methodType(boolean.class, int.class,
+                int.class);
+        try {
+            final MethodHandle open = lookup.findVirtual(type, "open",
+                    MethodType.methodType(void.class, int.class, int.class))
+                    .bindTo(engine);
+            final MethodHandle isOpen = lookup.findVirtual(type, "isOpen",
+                    site).bindTo(engine);
+            final MethodHandle isFull = lookup.findVirtual(type, "isFull",
+                    site).bindTo(engine);
+            final MethodHandle percolates = lookup.findVirtual(type,
+                    "percolates", MethodType.methodType(boolean.class))
+                    .bindTo(engine);
+
+            return new Grid() {
+                @Override
+                public void open(int i, int j) {
+                    try {
+                        open.invokeExact(i, j);
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                }
+
+                @Override
+                public boolean isOpen(int i, int j) {
+                    try {
+                        return (boolean) isOpen.invokeExact(i, j);
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                }
+
+                @Override
+                public boolean isFull(int i, int j) {
+                    try {
+                        return (boolean) isFull.invokeExact(i, j);
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                }
+
+                @Override
+                public boolean percolates() {
+                    try {
+                        return (boolean) percolates.invokeExact();
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                }
+            };
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(type + " is not a grid", e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+
+    // full sites of a rows-by-columns grid: open sites reachable from an
+    // open site of the first row
+    static boolean[][] fullSites(boolean[][] open) {
+        int rows = open.length;
+        int columns = open[0].length;
+        boolean[][] full = new boolean[rows][columns];
+        int[] queue = new int[rows * columns];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < columns; c++) {
+            if (open[0][c]) {
+                full[0][c] = true;
+                queue[tail++] = c;
+            }
+        }
+
+        int[] dr = { -1, 1, 0, 0 };
+        int[] dc = { 0, 0, -1, 1 };
+        while (head < tail) {
+            int r = queue[head] / columns;
+            int c = queue[head] % columns;
+            head++;
+            for (int k = 0; k < 4; k++) {
+                int nr = r + dr[k];
+                int nc = c + dc[k];
+                if (nr >= 0 && nr < rows && nc >= 0 && nc < columns
+                        && open[nr][nc] && !full[nr][nc]) {
+                    full[nr][nc] = true;
+                    queue[tail++] = (nr * columns) + nc;
+                }
+            }
+        }
+        return full;
+    }
+
+    // does any site of the last row hold a full site?
+    static boolean percolates(boolean[][] full) {
+        boolean[] last = full[full.length - 1];
+        for (int c = 0; c < last.length; c++) {
+            if (last[c]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the grid answers every query as the search over open does
+    static void assertMatches(String name, Grid grid, boolean[][] open) {
+        boolean[][] full = fullSites(open);
+        int N = open.length;
+        for (int i = 1; i <= N; i++) {
+            for (int j = 1; j <= N; j++) {
+                assertEquals(name + " open " + i + "," + j, open[i - 1][j - 1],
+                        grid.isOpen(i, j));
+                assertEquals(name + " full " + i + "," + j, full[i - 1][j - 1],
+                        grid.isFull(i, j));
+            }
+        }
+        assertEquals(name + " percolates", percolates(full), grid.percolates());
+    }
+
+    // open random sites, some more than once, checking after each open
+    static void checkRandomOpens(String name, Grid grid, int N,
+            SplittableRandom random) {
+        boolean[][] open = new boolean[N][N];
+        for (int step = 0; step < 2 * N * N; step++) {
+            int i = random.nextInt(N) + 1;
+            int j = random.nextInt(N) + 1;
+            grid.open(i, j);
+            open[i - 1][j - 1] = true;
+            assertMatches(name, grid, open);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+// checks Percolation on every union-find backend against a breadth-first
+// search of the same open sites
+public class PercolationReferenceTest {
+
+    private static final int GRIDS = PercolationReference.GRIDS;
+    private static final int MAXIMUM_N = PercolationReference.MAXIMUM_N;
+
+    @Test
+    public void percolationOnEveryBackend() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int t = 0; t < GRIDS; t++) {
+            int N = random.nextInt(MAXIMUM_N) + 1;
+            check("PackedUF", new Percolation(N), N, random);
+            check("PathHalvingUF", new Percolation(N,
+                    new PathHalvingUF(N * N)), N, random);
+            check("RollbackUF", new Percolation(N, new RollbackUF(N * N)), N,
+                    random);
+            check("Algs4UF", new Percolation(N, new Algs4UF(N * N)), N,
+                    random);
+        }
+    }
+
+    private static void check(String name, Percolation percolation, int N,
+            SplittableRandom random) {
+        PercolationReference.checkRandomOpens(name,
+                PercolationReference.grid(percolation), N, random);
+    }
+}
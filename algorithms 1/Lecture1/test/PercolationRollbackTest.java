@@ -0,0 +1,61 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+// checks checkpoint and rollback on the RollbackUF backend against a
+// breadth-first search of the sites still open
+public class PercolationRollbackTest {
+
+    private static final int GRIDS = PercolationReference.GRIDS;
+    private static final int MAXIMUM_N = PercolationReference.MAXIMUM_N;
+
+    @Test
+    public void randomOpensAndRollbacks() {
+        SplittableRandom random = new SplittableRandom(6);
+        for (int t = 0; t < GRIDS; t++) {
+            int N = random.nextInt(MAXIMUM_N) + 1;
+            Percolation percolation = new Percolation(N, new RollbackUF(N * N));
+            List<int[]> opened = new ArrayList<int[]>();
+            for (int step = 0; step < 4 * N * N; step++) {
+                if (random.nextInt(4) == 0) {
+                    int checkpoint = random.nextInt(opened.size() + 1);
+                    percolation.rollback(checkpoint);
+                    while (opened.size() > checkpoint) {
+                        opened.remove(opened.size() - 1);
+                    }
+                } else {
+                    int i = random.nextInt(N) + 1;
+                    int j = random.nextInt(N) + 1;
+                    if (!percolation.isOpen(i, j)) {
+                        opened.add(new int[] { i, j });
+                    }
+                    percolation.open(i, j);
+                }
+
+                assertEquals(opened.size(), percolation.checkpoint());
+                boolean[][] open = new boolean[N][N];
+                for (int[] site : opened) {
+                    open[site[0] - 1][site[1] - 1] = true;
+                }
+                PercolationReference.assertMatches("rollback",
+                        PercolationReference.grid(percolation), open);
+            }
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void checkpointNeedsRollbackBackend() {
+        new Percolation(3).checkpoint();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFutureCheckpoint() {
+        Percolation percolation = new Percolation(3, new RollbackUF(9));
+        percolation.open(1, 1);
+        percolation.rollback(2);
+    }
+}
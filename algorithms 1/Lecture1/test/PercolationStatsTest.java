@@ -0,0 +1,116 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+public class PercolationStatsTest {
+
+    private static final int N = 20;
+    private static final int T = 200;
+    private static final long SEED = 12345;
+
+    // trial t depends only on (seed, t), so the thread count cannot change
+    // a single bit of the statistics
+    @Test
+    public void resultsDoNotDependOnParallelism() {
+        PercolationStats serial = new PercolationStats(N, T, SEED, 1);
+        PercolationStats parallel = new PercolationStats(N, T, SEED, 4);
+        assertEquals(serial.mean(), parallel.mean(), 0.0);
+        assertEquals(serial.stddev(), parallel.stddev(), 0.0);
+        assertEquals(serial.confidenceLo(), parallel.confidenceLo(), 0.0);
+        assertEquals(serial.confidenceHi(), parallel.confidenceHi(), 0.0);
+    }
+
+    @Test
+    public void executorMatchesSerialRun() {
+        PercolationStats serial = new PercolationStats(N, T, SEED, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            PercolationStats pooled = new PercolationStats(N, T, SEED,
+                    executor);
+            assertEquals(serial.mean(), pooled.mean(), 0.0);
+            assertEquals(serial.stddev(), pooled.stddev(), 0.0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void differentSeedsGiveDifferentResults() {
+        PercolationStats first = new PercolationStats(N, T, SEED, 1);
+        PercolationStats second = new PercolationStats(N, T, SEED + 1, 1);
+        assertNotEquals(first.mean(), second.mean(), 0.0);
+    }
+
+    // the interval is mean +- 1.96 s / sqrt(T) for small and large T
+    @Test
+    public void confidenceIntervalIsStandard() {
+        for (int trials : new int[] { 2, 10, 29, 30, 200 }) {
+            PercolationStats stats = new PercolationStats(N, trials, SEED, 1);
+            double halfWidth = 1.96 * stats.stddev() / Math.sqrt(trials);
+            assertEquals(stats.mean() - halfWidth, stats.confidenceLo(),
+                    1e-15);
+            assertEquals(stats.mean() + halfWidth, stats.confidenceHi(),
+                    1e-15);
+        }
+    }
+
+    // an adaptive run reports the interval it stopped on
+    @Test
+    public void adaptiveIntervalMeetsTarget() {
+        PercolationStats stats = PercolationStats.adaptive(N, 0.005, 100000,
+                SEED, 1);
+        assertTrue(stats.confidenceHi() - stats.mean() <= 0.005 + 1e-12);
+        assertTrue(stats.mean() - stats.confidenceLo() <= 0.005 + 1e-12);
+    }
+
+    private static double halfWidth(PercolationStats stats) {
+        return 1.96 * stats.stddev() / Math.sqrt(stats.trials());
+    }
+
+    // adaptive stops at the first trial count from 30 on whose half-width
+    // is within the target; the first k trials of any run with the same
+    // seed are the same, so shorter runs show where it could have stopped
+    @Test
+    public void adaptiveStopsOnceHalfWidthIsReached() {
+        double target = 0.01;
+        PercolationStats stats = PercolationStats.adaptive(N, target, 10000,
+                SEED, 1);
+        int used = stats.trials();
+        assertTrue(used >= 30 && used < 10000);
+        assertTrue(halfWidth(stats) <= target + 1e-12);
+        for (int k = 30; k < used; k++) {
+            assertTrue("stopped late at " + used + ", reached at " + k,
+                    halfWidth(new PercolationStats(N, k, SEED, 1))
+                            > target - 1e-12);
+        }
+
+        PercolationStats parallel = PercolationStats.adaptive(N, target,
+                10000, SEED, 4);
+        assertEquals(used, parallel.trials());
+        assertEquals(stats.mean(), parallel.mean(), 0.0);
+    }
+
+    @Test
+    public void adaptiveStopsAtMaxTrials() {
+        PercolationStats stats = PercolationStats.adaptive(N, 1e-9, 50, SEED,
+                1);
+        assertEquals(50, stats.trials());
+        assertEquals(new PercolationStats(N, 50, SEED, 1).mean(),
+                stats.mean(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void adaptiveRejectsNonPositiveHalfWidth() {
+        PercolationStats.adaptive(N, 0.0, 50, SEED, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveParallelism() {
+        new PercolationStats(N, T, SEED, 0);
+    }
+}
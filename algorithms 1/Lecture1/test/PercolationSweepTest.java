@@ -0,0 +1,46 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PercolationSweepTest {
+
+    // a one-site grid percolates exactly when its site is open, so at
+    // fixed p both curves equal p
+    @Test
+    public void singleSiteCurvesEqualP() {
+        PercolationSweep sweep = new PercolationSweep(1, 10, 20, 1);
+        for (int bin = 0; bin < sweep.bins(); bin++) {
+            assertEquals(sweep.p(bin), sweep.percolationProbability(bin),
+                    1e-12);
+            assertEquals(sweep.p(bin), sweep.largestClusterFraction(bin),
+                    1e-12);
+        }
+    }
+
+    @Test
+    public void convolutionWeightsAreBinomial() {
+        // observable n over M = 4 has expectation p under Binomial(4, p)
+        double[] fraction = { 0.0, 0.25, 0.5, 0.75, 1.0 };
+        // and n^2 / M^2 has expectation (Mp(1 - p) + (Mp)^2) / M^2
+        double[] square = { 0.0, 1 / 16.0, 4 / 16.0, 9 / 16.0, 1.0 };
+        for (double p = 0.05; p < 1.0; p += 0.1) {
+            assertEquals(p, PercolationSweep.convolve(fraction, p), 1e-12);
+            assertEquals((p * (1 - p) / 4) + (p * p),
+                    PercolationSweep.convolve(square, p), 1e-12);
+        }
+    }
+
+    // the canonical curve agrees with fixed-p trials run directly
+    @Test
+    public void matchesFixedPTrials() {
+        int N = 10;
+        PercolationSweep sweep = new PercolationSweep(N, 2000, 10, 2);
+        for (int bin = 3; bin <= 7; bin++) {
+            double p = sweep.p(bin);
+            double direct = PercolationStats.percolationProbability(N, p,
+                    64 * 400, 3);
+            assertEquals("p = " + p, direct, sweep.percolationProbability(bin),
+                    0.03);
+        }
+    }
+}
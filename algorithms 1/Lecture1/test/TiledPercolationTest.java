@@ -0,0 +1,66 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+// checks a grid split into bands against a breadth-first search of the
+// same open sites, for every band count
+public class TiledPercolationTest {
+
+    private static final int GRIDS = PercolationReference.GRIDS;
+    private static final int MAXIMUM_N = PercolationReference.MAXIMUM_N;
+
+    @Test
+    public void randomOpens() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int t = 0; t < GRIDS; t++) {
+            int N = random.nextInt(MAXIMUM_N) + 1;
+            PercolationReference.checkRandomOpens("TiledPercolation",
+                    PercolationReference.grid(new TiledPercolation(N,
+                            random.nextInt(N) + 1)), N, random);
+        }
+    }
+
+    // batches opened band by band on a pool answer as single opens would
+    @Test
+    public void openAllOnExecutor() {
+        SplittableRandom random = new SplittableRandom(5);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int t = 0; t < GRIDS; t++) {
+                int N = random.nextInt(MAXIMUM_N) + 1;
+                TiledPercolation tiled = new TiledPercolation(N,
+                        random.nextInt(N) + 1);
+                boolean[][] open = new boolean[N][N];
+                for (int batch = 0; batch < 3; batch++) {
+                    int[][] sites = PercolationOpenAllTest.randomBatch(N,
+                            random);
+                    tiled.openAll(sites[0], sites[1], executor);
+                    for (int k = 0; k < sites[0].length; k++) {
+                        open[sites[0][k] - 1][sites[1][k] - 1] = true;
+                    }
+                    PercolationReference.assertMatches(
+                            "TiledPercolation.openAll",
+                            PercolationReference.grid(tiled), open);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void lastBandMayBeShorter() {
+        assertEquals(4, new TiledPercolation(10, 4).bands());
+        assertEquals(5, new TiledPercolation(10, 5).bands());
+        assertEquals(3, new TiledPercolation(7, 3).bands());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMoreBandsThanRows() {
+        new TiledPercolation(3, 4);
+    }
+}
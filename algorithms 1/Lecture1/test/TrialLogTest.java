@@ -0,0 +1,112 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TrialLogTest {
+
+    private static final int N = 20;
+    private static final int T = 100;
+    private static final long SEED = 2024;
+
+    private final File file = createTempFile();
+
+    private static File createTempFile() {
+        try {
+            return File.createTempFile("trials", ".log");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    // a run stopped after part of its trials, with its last record cut
+    // short, resumes to exactly the statistics of an uninterrupted run
+    @Test
+    public void resumedRunMatchesUninterruptedRun() throws IOException {
+        TrialLog log = new TrialLog(file.getPath(), N, SEED);
+        new PercolationStats(N, T / 2, SEED, 2, log);
+        log.close();
+        assertEquals(T / 2, TrialLog.load(file.getPath()).completedTrials());
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(raf.length() - 3);
+        } finally {
+            raf.close();
+        }
+
+        log = new TrialLog(file.getPath(), N, SEED);
+        assertEquals(T / 2 - 1, log.completedTrials());
+        PercolationStats resumed = new PercolationStats(N, T, SEED, 3, log);
+        log.close();
+
+        PercolationStats uninterrupted = new PercolationStats(N, T, SEED, 1);
+        assertEquals(uninterrupted.mean(), resumed.mean(), 0.0);
+        assertEquals(uninterrupted.stddev(), resumed.stddev(), 0.0);
+
+        PercolationStats loaded = PercolationStats.fromLog(file.getPath());
+        assertEquals(uninterrupted.mean(), loaded.mean(), 0.0);
+        assertEquals(uninterrupted.stddev(), loaded.stddev(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDifferentRun() throws IOException {
+        new TrialLog(file.getPath(), N, SEED).close();
+        new TrialLog(file.getPath(), N, SEED + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void appendRejectsForeignTrialSeed() throws IOException {
+        TrialLog log = new TrialLog(file.getPath(), N, SEED);
+        try {
+            log.append(0, PercolationStats.trialSeed(SEED + 1, 0), 0.5);
+        } finally {
+            log.close();
+        }
+    }
+
+    // a record whose trial seed the master seed does not give is refused
+    // both when resuming and when loading
+    @Test
+    public void rejectsForeignTrialSeed() throws IOException {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(
+                file));
+        try {
+            out.writeInt(0x504c4f47);
+            out.writeInt(N);
+            out.writeLong(SEED);
+            out.writeInt(0);
+            out.writeLong(PercolationStats.trialSeed(SEED, 0));
+            out.writeDouble(0.5);
+            out.writeInt(1);
+            out.writeLong(PercolationStats.trialSeed(SEED + 1, 1));
+            out.writeDouble(0.5);
+        } finally {
+            out.close();
+        }
+
+        try {
+            new TrialLog(file.getPath(), N, SEED);
+            throw new AssertionError("resumed a foreign log");
+        } catch (IOException e) {
+            // expected
+        }
+        try {
+            TrialLog.load(file.getPath());
+            throw new AssertionError("loaded a foreign log");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -3,47 +3,44 @@ import java.util.NoSuchElementException;
 
 public class Deque<Item> implements Iterable<Item> {
 
-    private Node<Item> head;
-    private Node<Item> tail;
+    // smallest capacity of the ring; every capacity is a power of two so
+    // that positions wrap with a mask instead of a modulo
+    private static final int MINIMUM_CAPACITY = 8;
+
+    private Object[] items;
+    private int head;
+    private int count;
 
     // construct an empty deque
     public Deque() {
-        this.head = null;
-        this.tail = null;
+        this.items = new Object[MINIMUM_CAPACITY];
+        this.head = 0;
+        this.count = 0;
     }
 
     // is the deque empty?
     public boolean isEmpty() {
-        return ((this.head == this.tail) && this.head == null);
+        return this.count == 0;
     }
 
     // return the number of items on the deque
     public int size() {
-        Iterator<Item> itr = this.iterator();
-        int count = 0;
-        while (itr.hasNext()) {
-            count++;
-            itr.next();
-        }
+        return this.count;
+    }
 
-        return count;
+    // number of items the ring can hold before it next grows
+    int capacity() {
+        return this.items.length;
     }
 
     // insert the item at the front
     public void addFirst(Item item) {
         validateItemIsNotNull(item);
+        growIfFull();
 
-        Node<Item> newNode = new Node<Item>(item);
-        newNode.setPrev(null);
-        newNode.setNext(this.head);
-
-        if (isEmpty()) {
-            this.tail = newNode;
-        } else {
-            this.head.setPrev(newNode);
-        }
-
-        this.head = newNode;
+        this.head = (this.head - 1) & (this.items.length - 1);
+        this.items[this.head] = item;
+        this.count++;
     }
 
     private void validateItemIsNotNull(Item item) {
@@ -55,35 +52,23 @@ public class Deque<Item> implements Iterable<Item> {
     // insert the item at the end
     public void addLast(Item item) {
         validateItemIsNotNull(item);
+        growIfFull();
 
-        Node<Item> newNode = new Node<Item>(item);
-        newNode.setNext(null);
-        newNode.setPrev(this.tail);
-
-        if (isEmpty()) {
-            this.head = newNode;
-        } else {
-            this.tail.setNext(newNode);
-        }
-
-        this.tail = newNode;
+        this.items[(this.head + this.count) & (this.items.length - 1)] = item;
+        this.count++;
     }
 
     // delete and return the item at the front
     public Item removeFirst() {
         validateQueueIsNotEmpty();
 
-        Node<Item> removed = this.head;
-
-        this.head = removed.getNext();
-
-        if (this.head != null) {
-            this.head.setPrev(null);
-        } else {
-            this.tail = null;
-        }
+        Item removed = itemAt(this.head);
+        this.items[this.head] = null;
+        this.head = (this.head + 1) & (this.items.length - 1);
+        this.count--;
 
-        return removed.getValue();
+        shrinkIfSparse();
+        return removed;
     }
 
     private void validateQueueIsNotEmpty() {
@@ -96,77 +81,72 @@ public class Deque<Item> implements Iterable<Item> {
     public Item removeLast() {
         validateQueueIsNotEmpty();
 
-        Node<Item> removed = this.tail;
+        int last = (this.head + this.count - 1) & (this.items.length - 1);
+        Item removed = itemAt(last);
+        this.items[last] = null;
+        this.count--;
 
-        this.tail = removed.getPrev();
-
-        if (this.tail != null) {
-            this.tail.setNext(null);
-        } else {
-            this.head = null;
-        }
-
-        return removed.getValue();
+        shrinkIfSparse();
+        return removed;
     }
 
-    @Override
-    // return an iterator over items in order from front to end
-    public Iterator<Item> iterator() {
-        return new DequeItr<Item>(this.head);
+    @SuppressWarnings("unchecked")
+    private Item itemAt(int position) {
+        return (Item) this.items[position];
     }
 
-    private class Node<Item> {
-
-        private Node<Item> next;
-        private Node<Item> prev;
-        private final Item value;
-
-        public Node(Item value) {
-            this.next = null;
-            this.prev = null;
-            this.value = value;
+    private void growIfFull() {
+        if (this.count == this.items.length) {
+            resize(this.items.length * 2);
         }
+    }
 
-        public void setNext(Node<Item> n) {
-            this.next = n;
+    // halve the ring once it is a quarter full, so that a run of adds and
+    // removes at the boundary cannot resize on every call
+    private void shrinkIfSparse() {
+        if (this.items.length > MINIMUM_CAPACITY
+                && this.count <= this.items.length / 4) {
+            resize(this.items.length / 2);
         }
+    }
 
-        public Node<Item> getNext() {
-            return this.next;
-        }
+    // copy the items, front first, to the start of a new ring
+    private void resize(int capacity) {
+        Object[] resized = new Object[capacity];
+        int firstPart = Math.min(this.count, this.items.length - this.head);
+        System.arraycopy(this.items, this.head, resized, 0, firstPart);
+        System.arraycopy(this.items, 0, resized, firstPart, this.count
+                - firstPart);
 
-        public void setPrev(Node<Item> p) {
-            this.prev = p;
-        }
-
-        public Node<Item> getPrev() {
-            return this.prev;
-        }
+        this.items = resized;
+        this.head = 0;
+    }
 
-        public Item getValue() {
-            return this.value;
-        }
+    @Override
+    // return an iterator over items in order from front to end
+    public Iterator<Item> iterator() {
+        return new DequeItr();
     }
 
-    private class DequeItr<Item> implements Iterator<Item> {
+    private class DequeItr implements Iterator<Item> {
 
-        private Node<Item> current;
+        private int offset;
 
-        public DequeItr(Node<Item> head) {
-            this.current = head;
+        public DequeItr() {
+            this.offset = 0;
         }
 
         @Override
         public boolean hasNext() {
-            return this.current != null;
+            return this.offset < count;
         }
 
         @Override
         public Item next() {
             validateNextIsValidOperaton();
 
-            Item value = current.getValue();
-            current = current.getNext();
+            Item value = itemAt((head + this.offset) & (items.length - 1));
+            this.offset++;
             return value;
         }
 
@@ -0,0 +1,144 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Deque specialised to long items, stored unboxed in a power-of-two ring
+// so that adds and removes allocate nothing once the ring has grown
+public class LongDeque implements Iterable<Long> {
+
+    private static final int MINIMUM_CAPACITY = 8;
+
+    private long[] items;
+    private int head;
+    private int count;
+
+    // construct an empty deque
+    public LongDeque() {
+        this.items = new long[MINIMUM_CAPACITY];
+        this.head = 0;
+        this.count = 0;
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return this.count;
+    }
+
+    // number of items the ring can hold before it next grows
+    int capacity() {
+        return this.items.length;
+    }
+
+    // insert the item at the front
+    public void addFirst(long item) {
+        growIfFull();
+
+        this.head = (this.head - 1) & (this.items.length - 1);
+        this.items[this.head] = item;
+        this.count++;
+    }
+
+    // insert the item at the end
+    public void addLast(long item) {
+        growIfFull();
+
+        this.items[(this.head + this.count) & (this.items.length - 1)] = item;
+        this.count++;
+    }
+
+    // delete and return the item at the front
+    public long removeFirst() {
+        validateQueueIsNotEmpty();
+
+        long removed = this.items[this.head];
+        this.head = (this.head + 1) & (this.items.length - 1);
+        this.count--;
+
+        shrinkIfSparse();
+        return removed;
+    }
+
+    private void validateQueueIsNotEmpty() {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    // delete and return the item at the end
+    public long removeLast() {
+        validateQueueIsNotEmpty();
+
+        long removed = this.items[(this.head + this.count - 1)
+                & (this.items.length - 1)];
+        this.count--;
+
+        shrinkIfSparse();
+        return removed;
+    }
+
+    private void growIfFull() {
+        if (this.count == this.items.length) {
+            resize(this.items.length * 2);
+        }
+    }
+
+    // halve the ring once it is a quarter full
+    private void shrinkIfSparse() {
+        if (this.items.length > MINIMUM_CAPACITY
+                && this.count <= this.items.length / 4) {
+            resize(this.items.length / 2);
+        }
+    }
+
+    // copy the items, front first, to the start of a new ring
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        int firstPart = Math.min(this.count, this.items.length - this.head);
+        System.arraycopy(this.items, this.head, resized, 0, firstPart);
+        System.arraycopy(this.items, 0, resized, firstPart, this.count
+                - firstPart);
+
+        this.items = resized;
+        this.head = 0;
+    }
+
+    @Override
+    // return an iterator over items in order from front to end
+    public PrimitiveIterator.OfLong iterator() {
+        return new DequeItr();
+    }
+
+    private class DequeItr implements PrimitiveIterator.OfLong {
+
+        private int offset;
+
+        public DequeItr() {
+            this.offset = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.offset < count;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            long value = items[(head + this.offset) & (items.length - 1)];
+            this.offset++;
+            return value;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// RandomizedQueue specialised to long items, stored unboxed in a resizing
+// array so that enqueue and dequeue allocate nothing once it has grown
+public class LongRandomizedQueue implements Iterable<Long> {
+
+    private static final int MINIMUM_CAPACITY = 8;
+
+    private long[] collection;
+    private int next;
+
+    // iterators still reading collection in place; while there are any, a
+    // dequeue must leave the array as it is and move to a copy
+    private int readers;
+
+    // construct an empty randomized queue
+    public LongRandomizedQueue() {
+        this.collection = new long[MINIMUM_CAPACITY];
+        this.next = 0;
+        this.readers = 0;
+    }
+
+    // is the queue empty?
+    public boolean isEmpty() {
+        return this.next == 0;
+    }
+
+    // return the number of items on the queue
+    public int size() {
+        return this.next;
+    }
+
+    // number of items the array can hold before it next grows
+    int capacity() {
+        return this.collection.length;
+    }
+
+    // add the item; iterators only read below the size they started at, so
+    // writing past it needs no copy
+    public void enqueue(long item) {
+        if (this.next == this.collection.length) {
+            resize(this.collection.length * 2);
+        }
+
+        this.collection[this.next] = item;
+        this.next++;
+    }
+
+    // delete and return a random item
+    public long dequeue() {
+        validateQueueIsNotEmpty();
+
+        int removeIndex = StdRandom.uniform(this.next);
+        long val = this.collection[removeIndex];
+        long[] old = this.collection;
+        this.next--;
+
+        // an array iterators are reading is left as it is, and the rest of
+        // the items are copied once, straight into the size they need
+        int capacity = capacityFor(this.next);
+        if (this.readers > 0 || capacity != old.length) {
+            resize(capacity);
+        }
+        if (removeIndex < this.next) {
+            this.collection[removeIndex] = old[this.next];
+        }
+        return val;
+    }
+
+    // return (but do not delete) a random item
+    public long sample() {
+        validateQueueIsNotEmpty();
+
+        return this.collection[StdRandom.uniform(this.next)];
+    }
+
+    private void validateQueueIsNotEmpty() {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    // halve the array once it is a quarter full
+    private int capacityFor(int count) {
+        if (this.collection.length > MINIMUM_CAPACITY
+                && count <= this.collection.length / 4) {
+            return this.collection.length / 2;
+        }
+        return this.collection.length;
+    }
+
+    // move the items to a new array; iterators keep reading the old one
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        System.arraycopy(this.collection, 0, resized, 0, this.next);
+        this.collection = resized;
+        this.readers = 0;
+    }
+
+    @Override
+    // return an independent iterator over items in random order
+    public PrimitiveIterator.OfLong iterator() {
+        if (this.next > 0) {
+            this.readers++;
+        }
+        return new RandomizedQueueIterator(this.collection, this.next);
+    }
+
+    // Fisher-Yates shuffle of the items, one step per call to next, so each
+    // order is equally likely; as in RandomizedQueue the shuffle runs on
+    // positions and the items are not copied
+    private class RandomizedQueueIterator implements PrimitiveIterator.OfLong {
+
+        private final long[] collection;
+        private final int size;
+        private final SwapMap swaps;
+        private int currIndex;
+
+        public RandomizedQueueIterator(long[] collection, int size) {
+            this.collection = collection;
+            this.size = size;
+            this.swaps = new SwapMap();
+            this.currIndex = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.currIndex < this.size;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            int swapIndex = this.currIndex
+                    + StdRandom.uniform(this.size - this.currIndex);
+            int picked = this.swaps.get(swapIndex);
+            this.swaps.put(swapIndex, this.swaps.get(this.currIndex));
+            this.currIndex++;
+            if (this.currIndex == this.size) {
+                release();
+            }
+            return this.collection[picked];
+        }
+
+        // stop counting as a reader of the queue's array, unless the queue
+        // has already moved to another one
+        private void release() {
+            if (this.collection == LongRandomizedQueue.this.collection) {
+                readers--;
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
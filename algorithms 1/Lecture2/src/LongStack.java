@@ -0,0 +1,110 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Stack and ResizingArrayStack specialised to long items, stored unboxed
+// in a resizing array so that push and pop allocate nothing once the array
+// has grown
+public class LongStack implements Iterable<Long> {
+
+    private static final int MINIMUM_CAPACITY = 8;
+
+    private long[] items;
+    private int N;
+
+    // create an empty stack
+    public LongStack() {
+        this.items = new long[MINIMUM_CAPACITY];
+        this.N = 0;
+    }
+
+    // is the stack empty?
+    public boolean isEmpty() {
+        return this.N == 0;
+    }
+
+    // number of items on the stack
+    public int size() {
+        return this.N;
+    }
+
+    // number of items the array can hold before it next grows
+    int capacity() {
+        return this.items.length;
+    }
+
+    // push a new item onto the stack
+    public void push(long item) {
+        if (this.N == this.items.length) {
+            resize(2 * this.items.length);
+        }
+        this.items[this.N++] = item;
+    }
+
+    // delete and return the item most recently added
+    public long pop() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Stack underflow");
+        }
+
+        long item = this.items[--this.N];
+        if (this.items.length > MINIMUM_CAPACITY
+                && this.N <= this.items.length / 4) {
+            resize(this.items.length / 2);
+        }
+        return item;
+    }
+
+    // return, but do not delete, the item most recently added
+    public long peek() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Stack underflow");
+        }
+        return this.items[this.N - 1];
+    }
+
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        System.arraycopy(this.items, 0, resized, 0, this.N);
+        this.items = resized;
+    }
+
+    // return a string of the items in LIFO order, separated by spaces
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        PrimitiveIterator.OfLong iterator = iterator();
+        while (iterator.hasNext()) {
+            s.append(iterator.nextLong()).append(' ');
+        }
+        return s.toString();
+    }
+
+    // return an iterator over the items in LIFO order
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new ReverseArrayIterator();
+    }
+
+    private class ReverseArrayIterator implements PrimitiveIterator.OfLong {
+
+        private int i = N;
+
+        @Override
+        public boolean hasNext() {
+            return this.i > 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return items[--this.i];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,17 +1,39 @@
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 public class RandomizedQueue<Item> implements Iterable<Item> {
 
+    private static final int MINIMUM_CAPACITY = 2;
+
     private Object[] collection;
     private int size;
     private int next;
 
+    // capacity the queue does not shrink below, except by trimToSize()
+    private final int minimumSize;
+
+    // iterators still reading collection in place; while there are any, a
+    // dequeue must leave the array as it is and move to a copy
+    private int readers;
+
     // construct an empty randomized queue
     public RandomizedQueue() {
-        this.size = 2;
+        this(MINIMUM_CAPACITY);
+    }
+
+    // construct an empty randomized queue with room for capacity items
+    // before it first grows, and that dequeues never shrink below that
+    public RandomizedQueue(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.minimumSize = Math.max(capacity, MINIMUM_CAPACITY);
+        this.size = this.minimumSize;
         this.next = 0;
         this.collection = new Object[size];
+        this.readers = 0;
     }
 
     // is the queue empty?
@@ -24,7 +46,13 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         return this.next;
     }
 
-    // add the item
+    // number of items the queue can hold before it next grows
+    int capacity() {
+        return this.size;
+    }
+
+    // add the item; iterators only read below the size they started at, so
+    // writing past it needs no copy
     public void enqueue(Item item) {
         validateItemIsNotNull(item);
 
@@ -42,6 +70,29 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         }
     }
 
+    // add all the items, growing the queue at most once; if any item is
+    // null nothing is added
+    public void enqueueAll(Collection<? extends Item> items) {
+        Object[] added = items.toArray();
+        for (int i = 0; i < added.length; i++) {
+            if (added[i] == null) {
+                throw new NullPointerException();
+            }
+        }
+
+        int required = this.next + added.length;
+        if (required > this.size) {
+            int newSize = this.size;
+            while (newSize < required) {
+                newSize *= 2;
+            }
+            createNewQueueOfSize(newSize);
+        }
+
+        System.arraycopy(added, 0, this.collection, this.next, added.length);
+        this.next = required;
+    }
+
     private void increaseCollectionSize() {
         int newSize = this.size * 2;
         createNewQueueOfSize(newSize);
@@ -49,33 +100,108 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 
     private void createNewQueueOfSize(int newSize) {
         Object newCollection[] = new Object[newSize];
-        for (int i = 0; i < this.next; i++) {
-            newCollection[i] = this.collection[i];
-        }
+        System.arraycopy(this.collection, 0, newCollection, 0, this.next);
 
         this.collection = newCollection;
         this.size = newSize;
+        this.readers = 0;
     }
 
     // delete and return a random item
+    @SuppressWarnings("unchecked")
     public Item dequeue() {
         validateQueueIsNotEmpty();
 
+        if (this.readers > 0) {
+            Object[] out = new Object[1];
+            removeShared(1, out);
+            return (Item) out[0];
+        }
+
+        Item val = removeRandomItem();
+        reduceMemoryIfRequired();
+
+        return val;
+    }
+
+    // delete k random items into out[0] to out[k - 1], shrinking the queue
+    // at most once
+    public void dequeue(int k, Item[] out) {
+        if (k < 0 || k > out.length) {
+            throw new IllegalArgumentException();
+        }
+        if (k > this.next) {
+            throw new NoSuchElementException();
+        }
+        if (this.readers > 0) {
+            removeShared(k, out);
+            return;
+        }
+
+        for (int i = 0; i < k; i++) {
+            out[i] = removeRandomItem();
+        }
+        reduceMemoryIfRequired();
+    }
+
+    // remove k random items into out from an array iterators are reading,
+    // without writing to it: the removals run on positions through a swap
+    // map, as the iterator's shuffle does, and the items left are then
+    // copied once, straight into the size they need
+    private void removeShared(int k, Object[] out) {
+        Object[] shared = this.collection;
+        SwapMap moved = new SwapMap();
+        int[] removed = new int[k];
+        for (int i = 0; i < k; i++) {
+            int removeIndex = getIndex();
+            out[i] = shared[moved.get(removeIndex)];
+            moved.put(removeIndex, moved.get(this.next - 1));
+            removed[i] = removeIndex;
+            this.next--;
+        }
+
+        createNewQueueOfSize(reducedSize());
+        for (int i = 0; i < k; i++) {
+            if (removed[i] < this.next) {
+                this.collection[removed[i]] = shared[moved.get(removed[i])];
+            }
+        }
+    }
+
+    private Item removeRandomItem() {
         int removeIndex = getIndex();
         @SuppressWarnings("unchecked")
         Item val = (Item) this.collection[removeIndex];
         this.collection[removeIndex] = this.collection[this.next - 1];
         this.collection[this.next - 1] = null;
         this.next--;
-
-        reduceMemoryIfRequired();
-
         return val;
     }
 
+    // halve the queue once it is a quarter full, repeatedly after a bulk
+    // dequeue, so that alternating enqueue and dequeue at the boundary
+    // cannot copy the items on every call
     private void reduceMemoryIfRequired() {
-        if (this.next < (this.size / 2)) {
-            int newSize = this.size / 2;
+        int newSize = reducedSize();
+        if (newSize != this.size) {
+            createNewQueueOfSize(newSize);
+        }
+    }
+
+    private int reducedSize() {
+        int newSize = this.size;
+        while (newSize / 2 >= this.minimumSize
+                && this.next <= newSize / 4) {
+            newSize /= 2;
+        }
+        return newSize;
+    }
+
+    // shrink the queue to hold exactly its current items, even below the
+    // capacity it was constructed with
+    public void trimToSize() {
+        int newSize = Math.max(this.next, MINIMUM_CAPACITY);
+        if (newSize != this.size) {
             createNewQueueOfSize(newSize);
         }
     }
@@ -102,33 +228,28 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
     @Override
     // return an independent iterator over items in random order
     public Iterator<Item> iterator() {
+        if (this.next > 0) {
+            this.readers++;
+        }
         return new RandomizedQueueIterator(this.collection, this.next);
     }
 
+    // Fisher-Yates shuffle of the items, one step per call to next, so each
+    // order is equally likely. The items are not copied: the shuffle runs
+    // on positions, and only the positions that have been swapped are kept
+    // in a map, so creating the iterator and each next are O(1).
     private class RandomizedQueueIterator implements Iterator<Item> {
 
         private final Object[] collection;
         private final int size;
+        private final SwapMap swaps;
         private int currIndex;
 
         public RandomizedQueueIterator(Object[] collection, int size) {
-            this.collection = new Object[size];
-            for (int i = 0; i < size; i++) {
-                this.collection[i] = collection[i];
-            }
-
+            this.collection = collection;
             this.size = size;
+            this.swaps = new SwapMap();
             this.currIndex = 0;
-            shuffle();
-        }
-
-        private void shuffle() {
-            for (int i = 0; i < this.size; i++) {
-                int swapIndex = StdRandom.uniform(size);
-                Object temp = this.collection[swapIndex];
-                this.collection[swapIndex] = this.collection[i];
-                this.collection[i] = temp;
-            }
         }
 
         @Override
@@ -141,9 +262,23 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         public Item next() {
             validateNextIsValidOperaton();
 
-            Item val = (Item) this.collection[this.currIndex];
+            int swapIndex = this.currIndex
+                    + StdRandom.uniform(this.size - this.currIndex);
+            int picked = this.swaps.get(swapIndex);
+            this.swaps.put(swapIndex, this.swaps.get(this.currIndex));
             this.currIndex++;
-            return val;
+            if (this.currIndex == this.size) {
+                release();
+            }
+            return (Item) this.collection[picked];
+        }
+
+        // stop counting as a reader of the queue's array, unless the queue
+        // has already moved to another one
+        private void release() {
+            if (this.collection == RandomizedQueue.this.collection) {
+                readers--;
+            }
         }
 
         private void validateNextIsValidOperaton() {
@@ -0,0 +1,64 @@
+// open addressing map from shuffle position to the index of the item
+// now there; a position that was never written maps to itself. The
+// randomized queues shuffle positions through it instead of copying their
+// items.
+final class SwapMap {
+
+    private int[] keys;
+    private int[] values;
+    private int count;
+
+    SwapMap() {
+        this.keys = new int[8];
+        this.values = new int[8];
+        this.count = 0;
+    }
+
+    int get(int position) {
+        int mask = this.keys.length - 1;
+        int k = mix(position) & mask;
+        while (this.keys[k] != 0) {
+            if (this.keys[k] == position + 1) {
+                return this.values[k];
+            }
+            k = (k + 1) & mask;
+        }
+        return position;
+    }
+
+    void put(int position, int index) {
+        if (2 * (this.count + 1) > this.keys.length) {
+            grow();
+        }
+
+        // keys are stored plus one so that zero marks an empty slot
+        int mask = this.keys.length - 1;
+        int k = mix(position) & mask;
+        while (this.keys[k] != 0 && this.keys[k] != position + 1) {
+            k = (k + 1) & mask;
+        }
+        if (this.keys[k] == 0) {
+            this.keys[k] = position + 1;
+            this.count++;
+        }
+        this.values[k] = index;
+    }
+
+    private void grow() {
+        int[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        this.keys = new int[oldKeys.length * 2];
+        this.values = new int[oldKeys.length * 2];
+        this.count = 0;
+        for (int k = 0; k < oldKeys.length; k++) {
+            if (oldKeys[k] != 0) {
+                put(oldKeys[k] - 1, oldValues[k]);
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
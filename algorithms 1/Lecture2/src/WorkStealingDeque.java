@@ -0,0 +1,238 @@
+/*************************************************************************
+ *  Compilation:  javac WorkStealingDeque.java
+ *  Execution:    java WorkStealingDeque <thieves> <seconds>
+ *
+ *  Chase-Lev work-stealing deque. One owner thread pushes and pops items
+ *  at the bottom; any number of other threads steal items from the top.
+ *  The items live in a power-of-two circular array that only the owner
+ *  grows. top only ever increases and is advanced by compare-and-set, so
+ *  a thief and the owner race only for the last item, and the owner's
+ *  push and pop take no lock and need no atomic instruction otherwise.
+ *
+ *  The test client runs the owner with the given number of thieves for
+ *  the given time and prints the items moved per second, against
+ *  ConcurrentLinkedDeque used the same way.
+ *
+ *  % java WorkStealingDeque 3 2
+ *
+ *************************************************************************/
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class WorkStealingDeque<Item> {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    // index of the next item to steal; only increases
+    private final AtomicLong top;
+
+    // index of the next free slot; written only by the owner
+    private volatile long bottom;
+
+    private volatile AtomicReferenceArray<Item> items;
+
+    // construct an empty deque
+    public WorkStealingDeque() {
+        this.top = new AtomicLong(0);
+        this.bottom = 0;
+        this.items = new AtomicReferenceArray<Item>(INITIAL_CAPACITY);
+    }
+
+    // is the deque empty? a snapshot when other threads are active
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // the number of items on the deque; a snapshot when other threads are
+    // active
+    public int size() {
+        long b = this.bottom;
+        long t = this.top.get();
+        return (int) Math.max(b - t, 0);
+    }
+
+    // insert the item at the bottom; owner thread only
+    public void push(Item item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+
+        long b = this.bottom;
+        long t = this.top.get();
+        AtomicReferenceArray<Item> a = this.items;
+        if (b - t >= a.length() - 1) {
+            a = grow(a, t, b);
+        }
+
+        a.lazySet((int) b & (a.length() - 1), item);
+        this.bottom = b + 1;
+    }
+
+    // copy items [t, b) to an array twice the size; thieves still reading
+    // the old array see the same items at the same indices
+    private AtomicReferenceArray<Item> grow(AtomicReferenceArray<Item> a,
+            long t, long b) {
+        AtomicReferenceArray<Item> grown = new AtomicReferenceArray<Item>(
+                a.length() * 2);
+        for (long i = t; i < b; i++) {
+            grown.lazySet((int) i & (grown.length() - 1),
+                    a.get((int) i & (a.length() - 1)));
+        }
+        this.items = grown;
+        return grown;
+    }
+
+    // delete and return the item at the bottom, or null if the deque is
+    // empty; owner thread only
+    public Item pop() {
+        long b = this.bottom - 1;
+        AtomicReferenceArray<Item> a = this.items;
+
+        // the volatile write of bottom is ordered before the read of top,
+        // so a thief either sees the smaller bottom or the owner sees its
+        // advanced top
+        this.bottom = b;
+        long t = this.top.get();
+
+        if (t > b) {
+            this.bottom = b + 1;
+            return null;
+        }
+
+        int slot = (int) b & (a.length() - 1);
+        Item item = a.get(slot);
+        if (t == b) {
+            // the last item: take it from the thieves by advancing top
+            if (this.top.compareAndSet(t, t + 1)) {
+                a.lazySet(slot, null);
+            } else {
+                item = null;
+            }
+            this.bottom = b + 1;
+            return item;
+        }
+
+        a.lazySet(slot, null);
+        return item;
+    }
+
+    // delete and return the item at the top, or null if the deque is
+    // empty; any thread
+    public Item steal() {
+        while (true) {
+            long t = this.top.get();
+            long b = this.bottom;
+            if (t >= b) {
+                return null;
+            }
+
+            AtomicReferenceArray<Item> a = this.items;
+            Item item = a.get((int) t & (a.length() - 1));
+            if (this.top.compareAndSet(t, t + 1)) {
+                return item;
+            }
+            // another thread took item t, so try again from the new top
+        }
+    }
+
+    // items moved per second by an owner pushing batches of items and
+    // popping them back while thieves steal, over the given time
+    private static double throughput(final WorkStealingDeque<Integer> deque,
+            int thieves, long nanos) throws InterruptedException {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong stolen = new AtomicLong();
+        Thread[] threads = new Thread[thieves];
+        for (int k = 0; k < thieves; k++) {
+            threads[k] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long count = 0;
+                    while (running.get()) {
+                        if (deque.steal() != null) {
+                            count++;
+                        }
+                    }
+                    stolen.addAndGet(count);
+                }
+            });
+            threads[k].start();
+        }
+
+        Integer task = Integer.valueOf(1);
+        long popped = 0;
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < nanos) {
+            for (int k = 0; k < 64; k++) {
+                deque.push(task);
+            }
+            while (deque.pop() != null) {
+                popped++;
+            }
+        }
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return (popped + stolen.get()) * 1e9 / (System.nanoTime() - start);
+    }
+
+    // the same workload on ConcurrentLinkedDeque: the owner uses the last
+    // end and the thieves the first
+    private static double throughput(final ConcurrentLinkedDeque<Integer> deque,
+            int thieves, long nanos) throws InterruptedException {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong stolen = new AtomicLong();
+        Thread[] threads = new Thread[thieves];
+        for (int k = 0; k < thieves; k++) {
+            threads[k] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long count = 0;
+                    while (running.get()) {
+                        if (deque.pollFirst() != null) {
+                            count++;
+                        }
+                    }
+                    stolen.addAndGet(count);
+                }
+            });
+            threads[k].start();
+        }
+
+        Integer task = Integer.valueOf(1);
+        long popped = 0;
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < nanos) {
+            for (int k = 0; k < 64; k++) {
+                deque.addLast(task);
+            }
+            while (deque.pollLast() != null) {
+                popped++;
+            }
+        }
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return (popped + stolen.get()) * 1e9 / (System.nanoTime() - start);
+    }
+
+    // test client, see the header comment
+    public static void main(String[] args) throws InterruptedException {
+        int thieves = Integer.parseInt(args[0]);
+        long nanos = (long) (Double.parseDouble(args[1]) * 1e9);
+
+        // one untimed round of each to warm up the JIT
+        throughput(new WorkStealingDeque<Integer>(), thieves, nanos / 4);
+        throughput(new ConcurrentLinkedDeque<Integer>(), thieves, nanos / 4);
+
+        StdOut.printf("WorkStealingDeque      %.0f items/s%n",
+                throughput(new WorkStealingDeque<Integer>(), thieves, nanos));
+        StdOut.printf("ConcurrentLinkedDeque  %.0f items/s%n",
+                throughput(new ConcurrentLinkedDeque<Integer>(), thieves,
+                        nanos));
+    }
+}
@@ -0,0 +1,153 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DequeTest {
+
+    // items added at the front come out in reverse, items added at the
+    // back in order, with the head wrapping past the start of the ring
+    @Test
+    public void frontAndBackOrderAcrossWraparound() {
+        Deque<Integer> deque = new Deque<Integer>();
+        for (int i = 0; i < 3; i++) {
+            deque.addLast(i);
+        }
+        for (int i = 1; i <= 3; i++) {
+            deque.addFirst(-i);
+        }
+        assertEquals(8, deque.capacity());
+
+        assertContents(deque, -3, -2, -1, 0, 1, 2);
+        assertEquals(Integer.valueOf(-3), deque.removeFirst());
+        assertEquals(Integer.valueOf(2), deque.removeLast());
+        assertEquals(Integer.valueOf(-2), deque.removeFirst());
+        assertEquals(Integer.valueOf(1), deque.removeLast());
+        assertContents(deque, -1, 0);
+    }
+
+    // growing past the first ring keeps the order whichever end was used
+    @Test
+    public void growsPastMinimumCapacity() {
+        Deque<Integer> deque = new Deque<Integer>();
+        for (int i = 0; i < 4; i++) {
+            deque.addFirst(3 - i);
+            deque.addLast(4 + i);
+        }
+        assertEquals(8, deque.capacity());
+
+        deque.addLast(8);
+        assertEquals(16, deque.capacity());
+        assertContents(deque, 0, 1, 2, 3, 4, 5, 6, 7, 8);
+
+        for (int i = 0; i < 100; i++) {
+            deque.addLast(9 + i);
+        }
+        assertEquals(128, deque.capacity());
+        for (int i = 0; i <= 108; i++) {
+            assertEquals(Integer.valueOf(i), deque.removeFirst());
+        }
+        assertTrue(deque.isEmpty());
+    }
+
+    // the ring halves once it is a quarter full, never below eight
+    @Test
+    public void shrinksAtQuarterFull() {
+        Deque<Integer> deque = new Deque<Integer>();
+        for (int i = 0; i < 64; i++) {
+            deque.addLast(i);
+        }
+        assertEquals(64, deque.capacity());
+
+        for (int i = 0; i < 47; i++) {
+            deque.removeFirst();
+        }
+        assertEquals(17, deque.size());
+        assertEquals(64, deque.capacity());
+        deque.removeLast();
+        assertEquals(32, deque.capacity());
+        assertEquals(Integer.valueOf(47), deque.removeFirst());
+        assertEquals(Integer.valueOf(62), deque.removeLast());
+
+        while (deque.size() > 1) {
+            deque.removeFirst();
+        }
+        assertEquals(8, deque.capacity());
+        assertEquals(Integer.valueOf(61), deque.removeLast());
+        assertEquals(8, deque.capacity());
+    }
+
+    // random operations at both ends agree with ArrayDeque
+    @Test
+    public void matchesArrayDeque() {
+        Random random = new Random(21);
+        Deque<Integer> deque = new Deque<Integer>();
+        ArrayDeque<Integer> reference = new ArrayDeque<Integer>();
+        for (int step = 0; step < 20000; step++) {
+            int operation = random.nextInt(reference.size() < 200 ? 4 : 6);
+            if (operation == 0) {
+                deque.addFirst(step);
+                reference.addFirst(step);
+            } else if (operation == 1) {
+                deque.addLast(step);
+                reference.addLast(step);
+            } else if (reference.isEmpty()) {
+                continue;
+            } else if ((operation & 1) == 0) {
+                assertEquals(reference.removeFirst(), deque.removeFirst());
+            } else {
+                assertEquals(reference.removeLast(), deque.removeLast());
+            }
+            assertEquals(reference.size(), deque.size());
+        }
+
+        Iterator<Integer> iterator = deque.iterator();
+        for (Integer item : reference) {
+            assertEquals(item, iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeFirstOnEmpty() {
+        new Deque<Integer>().removeFirst();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeLastOnEmpty() {
+        Deque<Integer> deque = new Deque<Integer>();
+        deque.addFirst(1);
+        deque.removeLast();
+        deque.removeLast();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iteratorPastEnd() {
+        Deque<Integer> deque = new Deque<Integer>();
+        deque.addLast(1);
+        Iterator<Integer> iterator = deque.iterator();
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNull() {
+        new Deque<Integer>().addFirst(null);
+    }
+
+    private static void assertContents(Deque<Integer> deque, int... items) {
+        assertEquals(items.length, deque.size());
+        Iterator<Integer> iterator = deque.iterator();
+        for (int item : items) {
+            assertTrue(iterator.hasNext());
+            assertEquals(Integer.valueOf(item), iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+    }
+}
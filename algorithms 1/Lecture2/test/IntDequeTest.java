@@ -0,0 +1,123 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntDequeTest {
+
+    private static int item(int k) {
+        return (k * 7) - 100;
+    }
+
+    // items added at the front come out in reverse and items added at the
+    // back in order, with the head wrapping past the start of the ring
+    @Test
+    public void orderAcrossWraparound() {
+        IntDeque deque = new IntDeque();
+        for (int k = 0; k < 3; k++) {
+            deque.addLast(item(k));
+            deque.addFirst(item(-1 - k));
+        }
+        assertEquals(8, deque.capacity());
+
+        for (int k = -3; k < 3; k++) {
+            assertEquals(item(k), deque.removeFirst());
+            deque.addLast(item(k));
+        }
+        for (int k = 2; k >= -3; k--) {
+            assertEquals(item(k), deque.removeLast());
+        }
+        assertEquals(0, deque.size());
+    }
+
+    // the ring doubles when full and halves at a quarter full, never below
+    // eight, keeping the order
+    @Test
+    public void resizesBothWays() {
+        IntDeque deque = new IntDeque();
+        for (int k = 0; k < 8; k++) {
+            deque.addFirst(item(k));
+        }
+        assertEquals(8, deque.capacity());
+        deque.addFirst(item(8));
+        assertEquals(16, deque.capacity());
+        for (int k = 9; k < 64; k++) {
+            deque.addFirst(item(k));
+        }
+        assertEquals(64, deque.capacity());
+
+        for (int k = 0; k < 47; k++) {
+            assertEquals(item(k), deque.removeLast());
+        }
+        assertEquals(64, deque.capacity());
+        assertEquals(item(47), deque.removeLast());
+        assertEquals(32, deque.capacity());
+        for (int k = 63; k > 48; k--) {
+            assertEquals(item(k), deque.removeFirst());
+        }
+        assertEquals(8, deque.capacity());
+        assertEquals(item(48), deque.removeFirst());
+        assertEquals(8, deque.capacity());
+    }
+
+    // random operations at both ends agree with ArrayDeque, including the
+    // iteration order
+    @Test
+    public void matchesArrayDeque() {
+        Random random = new Random(23);
+        IntDeque deque = new IntDeque();
+        ArrayDeque<Integer> reference = new ArrayDeque<Integer>();
+        for (int step = 0; step < 20000; step++) {
+            int operation = random.nextInt(reference.size() < 100 ? 4 : 6);
+            if (operation == 0) {
+                deque.addFirst(item(step));
+                reference.addFirst(item(step));
+            } else if (operation == 1) {
+                deque.addLast(item(step));
+                reference.addLast(item(step));
+            } else if (reference.isEmpty()) {
+                continue;
+            } else if ((operation & 1) == 0) {
+                assertEquals(reference.removeFirst().intValue(),
+                        deque.removeFirst());
+            } else {
+                assertEquals(reference.removeLast().intValue(),
+                        deque.removeLast());
+            }
+            assertEquals(reference.size(), deque.size());
+        }
+
+        PrimitiveIterator.OfInt iterator = deque.iterator();
+        for (Integer item : reference) {
+            assertEquals(item.intValue(), iterator.nextInt());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeFirstOnEmpty() {
+        new IntDeque().removeFirst();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeLastOnEmpty() {
+        IntDeque deque = new IntDeque();
+        deque.addFirst(item(0));
+        deque.removeFirst();
+        deque.removeLast();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iteratorPastEnd() {
+        IntDeque deque = new IntDeque();
+        deque.addLast(item(0));
+        PrimitiveIterator.OfInt iterator = deque.iterator();
+        iterator.nextInt();
+        iterator.nextInt();
+    }
+}
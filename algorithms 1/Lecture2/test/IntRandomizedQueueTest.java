@@ -0,0 +1,161 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.junit.Test;
+
+public class IntRandomizedQueueTest {
+
+    private static final int ITEMS = 1000;
+
+    private static int item(int k) {
+        return (k * 7) - 100;
+    }
+
+    private static int key(int item) {
+        return (item + 100) / 7;
+    }
+
+    @Test
+    public void dequeuesEveryItemOnce() {
+        IntRandomizedQueue queue = new IntRandomizedQueue();
+        for (int k = 0; k < ITEMS; k++) {
+            queue.enqueue(item(k));
+        }
+
+        boolean[] seen = new boolean[ITEMS];
+        for (int k = 0; k < ITEMS; k++) {
+            int key = key(queue.dequeue());
+            assertFalse(seen[key]);
+            seen[key] = true;
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    // the array doubles when full and halves at a quarter full, never below
+    // eight
+    @Test
+    public void resizesBothWays() {
+        IntRandomizedQueue queue = new IntRandomizedQueue();
+        for (int k = 0; k < 8; k++) {
+            queue.enqueue(item(k));
+        }
+        assertEquals(8, queue.capacity());
+        queue.enqueue(item(8));
+        assertEquals(16, queue.capacity());
+        for (int k = 9; k < 64; k++) {
+            queue.enqueue(item(k));
+        }
+        assertEquals(64, queue.capacity());
+
+        for (int k = 0; k < 47; k++) {
+            queue.dequeue();
+        }
+        assertEquals(64, queue.capacity());
+        queue.dequeue();
+        assertEquals(32, queue.capacity());
+        while (queue.size() > 1) {
+            queue.dequeue();
+        }
+        assertEquals(8, queue.capacity());
+        queue.dequeue();
+        assertEquals(8, queue.capacity());
+    }
+
+    // an iterator goes on returning the items the queue held when it was
+    // created, each once, whatever is enqueued and dequeued meanwhile
+    @Test
+    public void iteratorIsUnaffectedByLaterChanges() {
+        IntRandomizedQueue queue = new IntRandomizedQueue();
+        for (int k = 0; k < ITEMS; k++) {
+            queue.enqueue(item(k));
+        }
+
+        PrimitiveIterator.OfInt first = queue.iterator();
+        PrimitiveIterator.OfInt second = queue.iterator();
+        for (int k = 0; k < 600; k++) {
+            queue.dequeue();
+        }
+        for (int k = 0; k < 100; k++) {
+            queue.enqueue(item(ITEMS + k));
+        }
+        PrimitiveIterator.OfInt third = queue.iterator();
+        queue.dequeue();
+
+        assertEachOnce(first, 0, ITEMS);
+        assertEachOnce(second, 0, ITEMS);
+        assertEquals(500, count(third));
+        assertEquals(499, queue.size());
+    }
+
+    // once its iterators are exhausted the queue changes in place again,
+    // and new iterators still see exactly its items
+    @Test
+    public void exhaustedIteratorsReleaseTheQueue() {
+        IntRandomizedQueue queue = new IntRandomizedQueue();
+        for (int k = 0; k < ITEMS; k++) {
+            queue.enqueue(item(k));
+        }
+        assertEachOnce(queue.iterator(), 0, ITEMS);
+
+        for (int k = 0; k < ITEMS; k++) {
+            queue.enqueue(item(ITEMS + k));
+        }
+        assertEachOnce(queue.iterator(), 0, 2 * ITEMS);
+
+        PrimitiveIterator.OfInt unfinished = queue.iterator();
+        unfinished.nextInt();
+        while (queue.size() > 1) {
+            queue.dequeue();
+        }
+        assertEquals(2 * ITEMS - 1, count(unfinished));
+        assertEquals(1, count(queue.iterator()));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void dequeueOnEmpty() {
+        IntRandomizedQueue queue = new IntRandomizedQueue();
+        queue.enqueue(item(0));
+        queue.dequeue();
+        queue.dequeue();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void sampleOnEmpty() {
+        new IntRandomizedQueue().sample();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iteratorPastEnd() {
+        IntRandomizedQueue queue = new IntRandomizedQueue();
+        queue.enqueue(item(0));
+        PrimitiveIterator.OfInt iterator = queue.iterator();
+        iterator.nextInt();
+        iterator.nextInt();
+    }
+
+    private static void assertEachOnce(PrimitiveIterator.OfInt iterator,
+            int from, int to) {
+        boolean[] seen = new boolean[to];
+        for (int k = from; k < to; k++) {
+            assertTrue(iterator.hasNext());
+            int key = key(iterator.nextInt());
+            assertTrue(key >= from && key < to);
+            assertFalse(seen[key]);
+            seen[key] = true;
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    private static int count(PrimitiveIterator.OfInt iterator) {
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.nextInt();
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,98 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.junit.Test;
+
+public class IntStackTest {
+
+    private static int item(int k) {
+        return (k * 7) - 100;
+    }
+
+    @Test
+    public void lastInFirstOut() {
+        IntStack stack = new IntStack();
+        for (int k = 0; k < 20; k++) {
+            stack.push(item(k));
+        }
+        assertEquals(item(19), stack.peek());
+
+        PrimitiveIterator.OfInt iterator = stack.iterator();
+        for (int k = 19; k >= 0; k--) {
+            assertEquals(item(k), iterator.nextInt());
+        }
+        assertFalse(iterator.hasNext());
+
+        for (int k = 19; k >= 0; k--) {
+            assertEquals(item(k), stack.pop());
+        }
+        assertTrue(stack.isEmpty());
+    }
+
+    // the array doubles when full and halves at a quarter full, never below
+    // eight
+    @Test
+    public void resizesBothWays() {
+        IntStack stack = new IntStack();
+        for (int k = 0; k < 8; k++) {
+            stack.push(item(k));
+        }
+        assertEquals(8, stack.capacity());
+        stack.push(item(8));
+        assertEquals(16, stack.capacity());
+        for (int k = 9; k < 64; k++) {
+            stack.push(item(k));
+        }
+        assertEquals(64, stack.capacity());
+
+        for (int k = 63; k > 16; k--) {
+            assertEquals(item(k), stack.pop());
+        }
+        assertEquals(64, stack.capacity());
+        assertEquals(item(16), stack.pop());
+        assertEquals(32, stack.capacity());
+        for (int k = 15; k > 0; k--) {
+            assertEquals(item(k), stack.pop());
+        }
+        assertEquals(8, stack.capacity());
+        assertEquals(item(0), stack.pop());
+        assertEquals(8, stack.capacity());
+    }
+
+    @Test
+    public void toStringListsItemsLastFirst() {
+        IntStack stack = new IntStack();
+        stack.push(item(0));
+        stack.push(item(1));
+        stack.push(item(2));
+        assertEquals(item(2) + " " + item(1) + " " + item(0) + " ",
+                stack.toString());
+        assertEquals("", new IntStack().toString());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void popOnEmpty() {
+        IntStack stack = new IntStack();
+        stack.push(item(0));
+        stack.pop();
+        stack.pop();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void peekOnEmpty() {
+        new IntStack().peek();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iteratorPastEnd() {
+        IntStack stack = new IntStack();
+        stack.push(item(0));
+        PrimitiveIterator.OfInt iterator = stack.iterator();
+        iterator.nextInt();
+        iterator.nextInt();
+    }
+}
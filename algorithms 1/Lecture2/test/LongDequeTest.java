@@ -0,0 +1,124 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongDequeTest {
+
+    // items beyond the int range, so that nothing is truncated unnoticed
+    private static long item(int k) {
+        return ((long) k << 33) - 100;
+    }
+
+    // items added at the front come out in reverse and items added at the
+    // back in order, with the head wrapping past the start of the ring
+    @Test
+    public void orderAcrossWraparound() {
+        LongDeque deque = new LongDeque();
+        for (int k = 0; k < 3; k++) {
+            deque.addLast(item(k));
+            deque.addFirst(item(-1 - k));
+        }
+        assertEquals(8, deque.capacity());
+
+        for (int k = -3; k < 3; k++) {
+            assertEquals(item(k), deque.removeFirst());
+            deque.addLast(item(k));
+        }
+        for (int k = 2; k >= -3; k--) {
+            assertEquals(item(k), deque.removeLast());
+        }
+        assertEquals(0, deque.size());
+    }
+
+    // the ring doubles when full and halves at a quarter full, never below
+    // eight, keeping the order
+    @Test
+    public void resizesBothWays() {
+        LongDeque deque = new LongDeque();
+        for (int k = 0; k < 8; k++) {
+            deque.addFirst(item(k));
+        }
+        assertEquals(8, deque.capacity());
+        deque.addFirst(item(8));
+        assertEquals(16, deque.capacity());
+        for (int k = 9; k < 64; k++) {
+            deque.addFirst(item(k));
+        }
+        assertEquals(64, deque.capacity());
+
+        for (int k = 0; k < 47; k++) {
+            assertEquals(item(k), deque.removeLast());
+        }
+        assertEquals(64, deque.capacity());
+        assertEquals(item(47), deque.removeLast());
+        assertEquals(32, deque.capacity());
+        for (int k = 63; k > 48; k--) {
+            assertEquals(item(k), deque.removeFirst());
+        }
+        assertEquals(8, deque.capacity());
+        assertEquals(item(48), deque.removeFirst());
+        assertEquals(8, deque.capacity());
+    }
+
+    // random operations at both ends agree with ArrayDeque, including the
+    // iteration order
+    @Test
+    public void matchesArrayDeque() {
+        Random random = new Random(23);
+        LongDeque deque = new LongDeque();
+        ArrayDeque<Long> reference = new ArrayDeque<Long>();
+        for (int step = 0; step < 20000; step++) {
+            int operation = random.nextInt(reference.size() < 100 ? 4 : 6);
+            if (operation == 0) {
+                deque.addFirst(item(step));
+                reference.addFirst(item(step));
+            } else if (operation == 1) {
+                deque.addLast(item(step));
+                reference.addLast(item(step));
+            } else if (reference.isEmpty()) {
+                continue;
+            } else if ((operation & 1) == 0) {
+                assertEquals(reference.removeFirst().longValue(),
+                        deque.removeFirst());
+            } else {
+                assertEquals(reference.removeLast().longValue(),
+                        deque.removeLast());
+            }
+            assertEquals(reference.size(), deque.size());
+        }
+
+        PrimitiveIterator.OfLong iterator = deque.iterator();
+        for (Long item : reference) {
+            assertEquals(item.longValue(), iterator.nextLong());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeFirstOnEmpty() {
+        new LongDeque().removeFirst();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeLastOnEmpty() {
+        LongDeque deque = new LongDeque();
+        deque.addFirst(item(0));
+        deque.removeFirst();
+        deque.removeLast();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iteratorPastEnd() {
+        LongDeque deque = new LongDeque();
+        deque.addLast(item(0));
+        PrimitiveIterator.OfLong iterator = deque.iterator();
+        iterator.nextLong();
+        iterator.nextLong();
+    }
+}
@@ -0,0 +1,162 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.junit.Test;
+
+public class LongRandomizedQueueTest {
+
+    private static final int ITEMS = 1000;
+
+    // items beyond the int range, so that nothing is truncated unnoticed
+    private static long item(int k) {
+        return ((long) k << 33) - 100;
+    }
+
+    private static int key(long item) {
+        return (int) ((item + 100) >> 33);
+    }
+
+    @Test
+    public void dequeuesEveryItemOnce() {
+        LongRandomizedQueue queue = new LongRandomizedQueue();
+        for (int k = 0; k < ITEMS; k++) {
+            queue.enqueue(item(k));
+        }
+
+        boolean[] seen = new boolean[ITEMS];
+        for (int k = 0; k < ITEMS; k++) {
+            int key = key(queue.dequeue());
+            assertFalse(seen[key]);
+            seen[key] = true;
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    // the array doubles when full and halves at a quarter full, never below
+    // eight
+    @Test
+    public void resizesBothWays() {
+        LongRandomizedQueue queue = new LongRandomizedQueue();
+        for (int k = 0; k < 8; k++) {
+            queue.enqueue(item(k));
+        }
+        assertEquals(8, queue.capacity());
+        queue.enqueue(item(8));
+        assertEquals(16, queue.capacity());
+        for (int k = 9; k < 64; k++) {
+            queue.enqueue(item(k));
+        }
+        assertEquals(64, queue.capacity());
+
+        for (int k = 0; k < 47; k++) {
+            queue.dequeue();
+        }
+        assertEquals(64, queue.capacity());
+        queue.dequeue();
+        assertEquals(32, queue.capacity());
+        while (queue.size() > 1) {
+            queue.dequeue();
+        }
+        assertEquals(8, queue.capacity());
+        queue.dequeue();
+        assertEquals(8, queue.capacity());
+    }
+
+    // an iterator goes on returning the items the queue held when it was
+    // created, each once, whatever is enqueued and dequeued meanwhile
+    @Test
+    public void iteratorIsUnaffectedByLaterChanges() {
+        LongRandomizedQueue queue = new LongRandomizedQueue();
+        for (int k = 0; k < ITEMS; k++) {
+            queue.enqueue(item(k));
+        }
+
+        PrimitiveIterator.OfLong first = queue.iterator();
+        PrimitiveIterator.OfLong second = queue.iterator();
+        for (int k = 0; k < 600; k++) {
+            queue.dequeue();
+        }
+        for (int k = 0; k < 100; k++) {
+            queue.enqueue(item(ITEMS + k));
+        }
+        PrimitiveIterator.OfLong third = queue.iterator();
+        queue.dequeue();
+
+        assertEachOnce(first, 0, ITEMS);
+        assertEachOnce(second, 0, ITEMS);
+        assertEquals(500, count(third));
+        assertEquals(499, queue.size());
+    }
+
+    // once its iterators are exhausted the queue changes in place again,
+    // and new iterators still see exactly its items
+    @Test
+    public void exhaustedIteratorsReleaseTheQueue() {
+        LongRandomizedQueue queue = new LongRandomizedQueue();
+        for (int k = 0; k < ITEMS; k++) {
+            queue.enqueue(item(k));
+        }
+        assertEachOnce(queue.iterator(), 0, ITEMS);
+
+        for (int k = 0; k < ITEMS; k++) {
+            queue.enqueue(item(ITEMS + k));
+        }
+        assertEachOnce(queue.iterator(), 0, 2 * ITEMS);
+
+        PrimitiveIterator.OfLong unfinished = queue.iterator();
+        unfinished.nextLong();
+        while (queue.size() > 1) {
+            queue.dequeue();
+        }
+        assertEquals(2 * ITEMS - 1, count(unfinished));
+        assertEquals(1, count(queue.iterator()));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void dequeueOnEmpty() {
+        LongRandomizedQueue queue = new LongRandomizedQueue();
+        queue.enqueue(item(0));
+        queue.dequeue();
+        queue.dequeue();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void sampleOnEmpty() {
+        new LongRandomizedQueue().sample();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iteratorPastEnd() {
+        LongRandomizedQueue queue = new LongRandomizedQueue();
+        queue.enqueue(item(0));
+        PrimitiveIterator.OfLong iterator = queue.iterator();
+        iterator.nextLong();
+        iterator.nextLong();
+    }
+
+    private static void assertEachOnce(PrimitiveIterator.OfLong iterator,
+            int from, int to) {
+        boolean[] seen = new boolean[to];
+        for (int k = from; k < to; k++) {
+            assertTrue(iterator.hasNext());
+            int key = key(iterator.nextLong());
+            assertTrue(key >= from && key < to);
+            assertFalse(seen[key]);
+            seen[key] = true;
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    private static int count(PrimitiveIterator.OfLong iterator) {
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.nextLong();
+            count++;
+        }
+        return count;
+    }
+}
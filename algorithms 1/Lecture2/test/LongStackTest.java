@@ -0,0 +1,99 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.junit.Test;
+
+public class LongStackTest {
+
+    // items beyond the int range, so that nothing is truncated unnoticed
+    private static long item(int k) {
+        return ((long) k << 33) - 100;
+    }
+
+    @Test
+    public void lastInFirstOut() {
+        LongStack stack = new LongStack();
+        for (int k = 0; k < 20; k++) {
+            stack.push(item(k));
+        }
+        assertEquals(item(19), stack.peek());
+
+        PrimitiveIterator.OfLong iterator = stack.iterator();
+        for (int k = 19; k >= 0; k--) {
+            assertEquals(item(k), iterator.nextLong());
+        }
+        assertFalse(iterator.hasNext());
+
+        for (int k = 19; k >= 0; k--) {
+            assertEquals(item(k), stack.pop());
+        }
+        assertTrue(stack.isEmpty());
+    }
+
+    // the array doubles when full and halves at a quarter full, never below
+    // eight
+    @Test
+    public void resizesBothWays() {
+        LongStack stack = new LongStack();
+        for (int k = 0; k < 8; k++) {
+            stack.push(item(k));
+        }
+        assertEquals(8, stack.capacity());
+        stack.push(item(8));
+        assertEquals(16, stack.capacity());
+        for (int k = 9; k < 64; k++) {
+            stack.push(item(k));
+        }
+        assertEquals(64, stack.capacity());
+
+        for (int k = 63; k > 16; k--) {
+            assertEquals(item(k), stack.pop());
+        }
+        assertEquals(64, stack.capacity());
+        assertEquals(item(16), stack.pop());
+        assertEquals(32, stack.capacity());
+        for (int k = 15; k > 0; k--) {
+            assertEquals(item(k), stack.pop());
+        }
+        assertEquals(8, stack.capacity());
+        assertEquals(item(0), stack.pop());
+        assertEquals(8, stack.capacity());
+    }
+
+    @Test
+    public void toStringListsItemsLastFirst() {
+        LongStack stack = new LongStack();
+        stack.push(item(0));
+        stack.push(item(1));
+        stack.push(item(2));
+        assertEquals(item(2) + " " + item(1) + " " + item(0) + " ",
+                stack.toString());
+        assertEquals("", new LongStack().toString());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void popOnEmpty() {
+        LongStack stack = new LongStack();
+        stack.push(item(0));
+        stack.pop();
+        stack.pop();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void peekOnEmpty() {
+        new LongStack().peek();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iteratorPastEnd() {
+        LongStack stack = new LongStack();
+        stack.push(item(0));
+        PrimitiveIterator.OfLong iterator = stack.iterator();
+        iterator.nextLong();
+        iterator.nextLong();
+    }
+}
@@ -1,4 +1,12 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.junit.Test;
 
@@ -32,4 +40,150 @@ public class RandomizedQueueTest {
             System.out.println("i2 value: " + i2.next());
         }
     }
+
+    @Test
+    public void iteratorIsUnaffectedByLaterChanges() {
+        RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            queue.enqueue(i);
+        }
+
+        Iterator<Integer> iterator = queue.iterator();
+        for (int i = 0; i < 600; i++) {
+            queue.dequeue();
+        }
+        for (int i = 0; i < 100; i++) {
+            queue.enqueue(-1);
+        }
+
+        boolean[] seen = new boolean[1000];
+        int count = 0;
+        while (iterator.hasNext()) {
+            int item = iterator.next();
+            assertFalse(seen[item]);
+            seen[item] = true;
+            count++;
+        }
+        assertEquals(1000, count);
+        assertEquals(500, queue.size());
+    }
+
+    // dequeues while an iterator is reading leave it intact, shrink the
+    // queue to the same capacity as without the iterator, and remove each
+    // item once
+    @Test
+    public void dequeuesWhileIteratingShrinkOnce() {
+        RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>();
+        RandomizedQueue<Integer> alone = new RandomizedQueue<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            queue.enqueue(i);
+            alone.enqueue(i);
+        }
+
+        Iterator<Integer> iterator = queue.iterator();
+        iterator.next();
+        Integer[] out = new Integer[1000];
+        queue.dequeue(750, out);
+        alone.dequeue(750, new Integer[750]);
+        assertEquals(alone.capacity(), queue.capacity());
+        for (int i = 750; i < 1000; i++) {
+            out[i] = queue.dequeue();
+            alone.dequeue();
+            assertEquals(alone.capacity(), queue.capacity());
+        }
+
+        Arrays.sort(out);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), out[i]);
+        }
+        int count = 1;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(1000, count);
+    }
+
+    // an exhausted iterator stops holding the queue, and later iterators
+    // see exactly the items left
+    @Test
+    public void exhaustedIteratorReleasesQueue() {
+        RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>();
+        for (int i = 0; i < 100; i++) {
+            queue.enqueue(i);
+        }
+        for (Integer item : queue) {
+            assertTrue(item >= 0);
+        }
+
+        for (int i = 0; i < 60; i++) {
+            queue.dequeue();
+        }
+        boolean[] seen = new boolean[100];
+        int count = 0;
+        for (Integer item : queue) {
+            assertFalse(seen[item]);
+            seen[item] = true;
+            count++;
+        }
+        assertEquals(40, count);
+    }
+
+    @Test
+    public void bulkEnqueueAndDequeue() {
+        List<Integer> items = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            items.add(i);
+        }
+
+        RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>(10);
+        queue.enqueueAll(items);
+        queue.enqueue(100);
+        assertEquals(101, queue.size());
+
+        Integer[] out = new Integer[101];
+        queue.dequeue(90, out);
+        assertEquals(11, queue.size());
+        for (int i = 90; i < 101; i++) {
+            out[i] = queue.dequeue();
+        }
+        assertTrue(queue.isEmpty());
+
+        Arrays.sort(out);
+        for (int i = 0; i < 101; i++) {
+            assertEquals(Integer.valueOf(i), out[i]);
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void enqueueAllRejectsNull() {
+        RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>();
+        try {
+            queue.enqueueAll(Arrays.asList(1, null, 3));
+        } finally {
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void dequeueMoreThanSize() {
+        RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>();
+        queue.enqueue(1);
+        queue.dequeue(2, new Integer[2]);
+    }
+
+    @Test
+    public void capacityHintIsShrinkFloor() {
+        RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>(4096);
+        for (int i = 0; i < 1000; i++) {
+            queue.enqueue(i);
+        }
+        for (int i = 0; i < 999; i++) {
+            queue.dequeue();
+        }
+        assertEquals(4096, queue.capacity());
+
+        queue.trimToSize();
+        assertEquals(2, queue.capacity());
+    }
 }
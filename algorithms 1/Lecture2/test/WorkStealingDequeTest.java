@@ -0,0 +1,104 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+public class WorkStealingDequeTest {
+
+    private static final int THIEVES = 8;
+    private static final int ITEMS = 1000000;
+
+    @Test
+    public void ownerPopsNewestAndThievesStealOldest() {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<Integer>();
+        for (int i = 0; i < 100; i++) {
+            deque.push(i);
+        }
+
+        assertEquals(100, deque.size());
+        assertEquals(Integer.valueOf(99), deque.pop());
+        assertEquals(Integer.valueOf(0), deque.steal());
+        assertEquals(Integer.valueOf(1), deque.steal());
+        assertEquals(Integer.valueOf(98), deque.pop());
+        assertEquals(96, deque.size());
+
+        while (deque.pop() != null) {
+        }
+        assertTrue(deque.isEmpty());
+        assertNull(deque.steal());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void pushNull() {
+        new WorkStealingDeque<Integer>().push(null);
+    }
+
+    // the owner pushes every item once, popping some back, while thieves
+    // steal; every item must be taken exactly once
+    @Test
+    public void stealingThreadsTakeEachItemOnce() throws InterruptedException {
+        final WorkStealingDeque<Integer> deque =
+                new WorkStealingDeque<Integer>();
+        final AtomicIntegerArray taken = new AtomicIntegerArray(ITEMS);
+        final AtomicBoolean pushing = new AtomicBoolean(true);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] thieves = new Thread[THIEVES];
+        for (int k = 0; k < THIEVES; k++) {
+            thieves[k] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    awaitStart(start);
+                    while (true) {
+                        boolean more = pushing.get();
+                        Integer item = deque.steal();
+                        if (item != null) {
+                            taken.incrementAndGet(item);
+                        } else if (!more) {
+                            return;
+                        }
+                    }
+                }
+            });
+            thieves[k].start();
+        }
+
+        start.countDown();
+        for (int i = 0; i < ITEMS; i++) {
+            deque.push(i);
+            if (i % 3 == 0) {
+                Integer item = deque.pop();
+                if (item != null) {
+                    taken.incrementAndGet(item);
+                }
+            }
+        }
+        pushing.set(false);
+
+        Integer item;
+        while ((item = deque.pop()) != null) {
+            taken.incrementAndGet(item);
+        }
+        for (Thread thief : thieves) {
+            thief.join();
+        }
+
+        for (int i = 0; i < ITEMS; i++) {
+            assertEquals("item " + i, 1, taken.get(i));
+        }
+        assertTrue(deque.isEmpty());
+    }
+
+    private static void awaitStart(CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
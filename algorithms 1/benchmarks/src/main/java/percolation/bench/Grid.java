@@ -0,0 +1,134 @@
+/****************************************************************************
+ *  The assignment classes live in the default package, which Java code in
+ *  a named package cannot refer to, and JMH refuses benchmarks in the
+ *  default package. The benchmarks therefore reach Percolation and
+ *  PercolationStats through these method handles. They are static final
+ *  constants, so the JIT inlines invokeExact through them to a direct
+ *  call and the measurements carry no reflection cost.
+ *
+ ****************************************************************************/
+
+package percolation.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.SplittableRandom;
+
+final class Grid {
+
+    private static final MethodHandle NEW_PERCOLATION;
+    private static final MethodHandle OPEN;
+    private static final MethodHandle IS_FULL;
+    private static final MethodHandle PERCOLATES;
+    private static final MethodHandle NEW_STATS;
+    private static final MethodHandle MEAN;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> percolation = Class.forName("Percolation");
+            Class<?> stats = Class.forName("PercolationStats");
+
+            NEW_PERCOLATION = lookup.findConstructor(percolation,
+                    MethodType.methodType(void.class, int.class)).asType(
+                    MethodType.methodType(Object.class, int.class));
+            OPEN = lookup.findVirtual(percolation, "open",
+                    MethodType.methodType(void.class, int.class, int.class))
+                    .asType(MethodType.methodType(void.class, Object.class,
+                            int.class, int.class));
+            IS_FULL = lookup.findVirtual(percolation, "isFull",
+                    MethodType.methodType(boolean.class, int.class, int.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class,
+                            int.class, int.class));
+            PERCOLATES = lookup.findVirtual(percolation, "percolates",
+                    MethodType.methodType(boolean.class)).asType(
+                    MethodType.methodType(boolean.class, Object.class));
+            NEW_STATS = lookup.findConstructor(stats, MethodType.methodType(
+                    void.class, int.class, int.class, long.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class,
+                            int.class, long.class, int.class));
+            MEAN = lookup.findVirtual(stats, "mean",
+                    MethodType.methodType(double.class)).asType(
+                    MethodType.methodType(double.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Grid() {
+    }
+
+    // new Percolation(N)
+    static Object percolation(int N) {
+        try {
+            return (Object) NEW_PERCOLATION.invokeExact(N);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // percolation.open(i, j)
+    static void open(Object percolation, int i, int j) {
+        try {
+            OPEN.invokeExact(percolation, i, j);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // percolation.isFull(i, j)
+    static boolean isFull(Object percolation, int i, int j) {
+        try {
+            return (boolean) IS_FULL.invokeExact(percolation, i, j);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // percolation.percolates()
+    static boolean percolates(Object percolation) {
+        try {
+            return (boolean) PERCOLATES.invokeExact(percolation);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // new PercolationStats(N, T, seed, parallelism).mean()
+    static double statsMean(int N, int T, long seed, int parallelism) {
+        try {
+            Object stats = (Object) NEW_STATS.invokeExact(N, T, seed,
+                    parallelism);
+            return (double) MEAN.invokeExact(stats);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    // the row-major indices 0 to N * N - 1 in random order
+    static int[] shuffledSites(int N, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] sites = new int[N * N];
+        for (int k = 0; k < sites.length; k++) {
+            sites[k] = k;
+        }
+        for (int k = sites.length - 1; k > 0; k--) {
+            int pick = random.nextInt(k + 1);
+            int site = sites[pick];
+            sites[pick] = sites[k];
+            sites[k] = site;
+        }
+        return sites;
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,42 @@
+/****************************************************************************
+ *  Entry point of benchmarks.jar: the JMH command line, with the GC
+ *  profiler always added so that every result carries its allocation
+ *  rate (gc.alloc.rate.norm is bytes allocated per operation).
+ *
+ *    java -jar benchmarks.jar                      all benchmarks
+ *    java -jar benchmarks.jar QueryBenchmark -p N=1000
+ *
+ ****************************************************************************/
+
+package percolation.bench;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public final class Main {
+
+    private Main() {
+    }
+
+    public static void main(String[] args) throws RunnerException,
+            CommandLineOptionException, IOException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp()) {
+            options.showHelp();
+            return;
+        }
+
+        Runner runner = new Runner(new OptionsBuilder().parent(options)
+                .addProfiler(GCProfiler.class).build());
+        if (options.shouldList()) {
+            runner.list();
+        } else {
+            runner.run();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/****************************************************************************
+ *  Time to open a fraction density of the sites of a new N-by-N grid in
+ *  random order, one open(i, j) call per site. Each grid starts fresh,
+ *  made in an untimed setup; divide by density * N * N for the cost of a
+ *  single open.
+ *
+ *  A setup before every invocation is only trustworthy when the invocation
+ *  takes well over a millisecond. That holds for one grid of N = 1000 or
+ *  more, but a 100-by-100 grid fills in microseconds, so openSmall opens
+ *  a batch of SmallGrids.BATCH fresh grids per invocation and reports the
+ *  time per grid.
+ *
+ ****************************************************************************/
+
+package percolation.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OpenBenchmark {
+
+    // one fresh grid per invocation
+    @State(Scope.Thread)
+    public static class Grids {
+
+        @Param({ "1000", "4000" })
+        public int N;
+
+        @Param({ "0.3", "0.593", "0.9" })
+        public double density;
+
+        private int[] rows;
+        private int[] cols;
+        private Object percolation;
+
+        @Setup(Level.Trial)
+        public void chooseSites() {
+            int[][] chosen = OpenBenchmark.chooseSites(N, density);
+            this.rows = chosen[0];
+            this.cols = chosen[1];
+        }
+
+        @Setup(Level.Invocation)
+        public void createGrid() {
+            this.percolation = Grid.percolation(N);
+        }
+    }
+
+    // BATCH fresh grids per invocation
+    @State(Scope.Thread)
+    public static class SmallGrids {
+
+        static final int BATCH = 64;
+
+        @Param({ "100" })
+        public int N;
+
+        @Param({ "0.3", "0.593", "0.9" })
+        public double density;
+
+        private int[] rows;
+        private int[] cols;
+        private final Object[] percolations = new Object[BATCH];
+
+        @Setup(Level.Trial)
+        public void chooseSites() {
+            int[][] chosen = OpenBenchmark.chooseSites(N, density);
+            this.rows = chosen[0];
+            this.cols = chosen[1];
+        }
+
+        @Setup(Level.Invocation)
+        public void createGrids() {
+            for (int b = 0; b < BATCH; b++) {
+                this.percolations[b] = Grid.percolation(N);
+            }
+        }
+    }
+
+    // the rows and columns of the first density * N * N sites of a fixed
+    // shuffle
+    private static int[][] chooseSites(int N, double density) {
+        int[] sites = Grid.shuffledSites(N, 1);
+        int count = (int) (density * sites.length);
+        int[][] chosen = new int[2][count];
+        for (int k = 0; k < count; k++) {
+            chosen[0][k] = (sites[k] / N) + 1;
+            chosen[1][k] = (sites[k] % N) + 1;
+        }
+        return chosen;
+    }
+
+    private static void open(Object grid, int[] rows, int[] cols) {
+        for (int k = 0; k < rows.length; k++) {
+            Grid.open(grid, rows[k], cols[k]);
+        }
+    }
+
+    @Benchmark
+    public Object open(Grids grids) {
+        open(grids.percolation, grids.rows, grids.cols);
+        return grids.percolation;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SmallGrids.BATCH)
+    public Object openSmall(SmallGrids grids) {
+        for (int b = 0; b < SmallGrids.BATCH; b++) {
+            open(grids.percolations[b], grids.rows, grids.cols);
+        }
+        return grids.percolations;
+    }
+}
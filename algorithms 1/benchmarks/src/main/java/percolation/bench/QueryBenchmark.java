@@ -0,0 +1,78 @@
+/****************************************************************************
+ *  Latency of isFull(i, j) at random sites and of percolates() on an
+ *  N-by-N grid with a fraction density of its sites open. The grid is
+ *  built once per trial and not changed by the queries, though isFull may
+ *  still compress paths in the union-find.
+ *
+ ****************************************************************************/
+
+package percolation.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QueryBenchmark {
+
+    // number of precomputed query sites, a power of two
+    private static final int QUERIES = 1 << 12;
+
+    @Param({ "100", "1000", "4000" })
+    public int N;
+
+    @Param({ "0.3", "0.593", "0.9" })
+    public double density;
+
+    private Object percolation;
+    private int[] rows;
+    private int[] cols;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void openGrid() {
+        this.percolation = Grid.percolation(N);
+        int[] sites = Grid.shuffledSites(N, 1);
+        int count = (int) (density * sites.length);
+        for (int k = 0; k < count; k++) {
+            Grid.open(this.percolation, (sites[k] / N) + 1,
+                    (sites[k] % N) + 1);
+        }
+
+        SplittableRandom random = new SplittableRandom(2);
+        this.rows = new int[QUERIES];
+        this.cols = new int[QUERIES];
+        for (int k = 0; k < QUERIES; k++) {
+            this.rows[k] = random.nextInt(N) + 1;
+            this.cols[k] = random.nextInt(N) + 1;
+        }
+        this.next = 0;
+    }
+
+    @Benchmark
+    public boolean isFull() {
+        int k = this.next++ & (QUERIES - 1);
+        return Grid.isFull(this.percolation, this.rows[k], this.cols[k]);
+    }
+
+    @Benchmark
+    public boolean percolates() {
+        return Grid.percolates(this.percolation);
+    }
+}
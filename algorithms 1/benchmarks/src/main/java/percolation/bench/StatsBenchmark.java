@@ -0,0 +1,43 @@
+/****************************************************************************
+ *  Time of PercolationStats trials on an N-by-N grid, single threaded:
+ *  each operation runs trials complete experiments, each opening random
+ *  sites until the grid percolates. Every operation uses a new seed so
+ *  the JIT cannot specialise on one open sequence.
+ *
+ ****************************************************************************/
+
+package percolation.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StatsBenchmark {
+
+    @Param({ "100", "1000", "4000" })
+    public int N;
+
+    @Param({ "1" })
+    public int trials;
+
+    private long seed;
+
+    @Benchmark
+    public double trials() {
+        return Grid.statsMean(N, this.trials, this.seed++, 1);
+    }
+}